@@ -0,0 +1,81 @@
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.text.SimpleDateFormat;
+
+// Compares the old String.split loader with CsvTokenizer on a generated sales file.
+// Reports wall time and bytes allocated by the reading thread for each path.
+// Usage: java CsvBenchmark [rows]   (default 10,000,000 rows)
+public class CsvBenchmark {
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        File file = File.createTempFile("sales-bench", ".csv");
+        file.deleteOnExit();
+        generate(file, rows);
+        System.out.printf("Generated %,d rows (%,d MB)%n", rows, file.length() >> 20);
+
+        // One warm-up round each so the JIT settles before we measure
+        splitPath(file);
+        tokenizerPath(file);
+
+        measure("String.split + SimpleDateFormat", () -> splitPath(file));
+        measure("CsvTokenizer", () -> tokenizerPath(file));
+    }
+
+    // The loader as it was: one String per field plus a formatter and Date per row
+    private static double splitPath(File file) throws Exception {
+        double total = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            br.readLine();
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length < 13) continue;
+                total += new SimpleDateFormat("yyyy-MM-dd").parse(parts[12].trim()).getTime() > 0 ? 1 : 0;
+                total += Double.parseDouble(parts[7].trim());
+            }
+        }
+        return total;
+    }
+
+    private static double tokenizerPath(File file) throws Exception {
+        double total = 0;
+        try (CsvTokenizer csv = new CsvTokenizer(new FileInputStream(file))) {
+            csv.next();
+            while (csv.next()) {
+                if (csv.fieldCount() < 13) continue;
+                total += csv.parseEpochDay(12) > 0 ? 1 : 0;
+                total += csv.parseDouble(7);
+            }
+        }
+        return total;
+    }
+
+    private static void measure(String name, Task task) throws Exception {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(id);
+        long start = System.nanoTime();
+        double result = task.run();
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(id) - bytesBefore;
+        System.out.printf("%-32s %8d ms %,16d bytes allocated (checksum %.0f)%n",
+                          name, elapsed / 1_000_000, bytes, result);
+    }
+
+    private static void generate(File file, int rows) throws IOException {
+        try (PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(file), 1 << 16))) {
+            pw.println("img,title,console,genre,publisher,developer,critic_score,total_sales,"
+                     + "na_sales,jp_sales,pal_sales,other_sales,release_date,last_update");
+            for (int i = 0; i < rows; i++) {
+                pw.printf("/img/%d.jpg,Game %d,PS4,Action,Publisher,Developer,8.1,%d.%02d,"
+                        + "0.5,0.1,0.2,0.05,%d-%02d-%02d,2024-01-01%n",
+                          i, i, i % 20, i % 100, 1990 + i % 30, 1 + i % 12, 1 + i % 28);
+            }
+        }
+    }
+
+    private interface Task {
+        double run() throws Exception;
+    }
+}
@@ -0,0 +1,334 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Splits CSV records into fields without creating a String per field.
+// Each field is kept as a start/end offset into one reused byte buffer, and
+// numbers and dates are parsed straight from those ranges. Quoted fields
+// ("Title, with comma") and doubled quotes inside them are supported, and a
+// quoted field may span several lines.
+class CsvTokenizer implements Closeable {
+    // Exact powers of ten for the fast double path
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final InputStream in;
+    private byte[] buf;
+    private int pos;            // first unread byte
+    private int limit;          // end of valid data in buf
+    private long bufferOffset;  // stream offset of buf[0]
+    private boolean eof;
+
+    // Fields of the current record
+    private int count;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] escaped = new boolean[16];  // field contains "" pairs
+    private int recordStart, recordEnd;           // current record, without line break
+
+    CsvTokenizer(InputStream in) {
+        this(in, 1 << 16);
+    }
+
+    CsvTokenizer(InputStream in, int bufferSize) {
+        this.in = in;
+        this.buf = new byte[bufferSize];
+    }
+
+    // Moves to the next record, false at end of input
+    boolean next() throws IOException {
+        while (true) {
+            if (pos == limit && eof) return false;
+            if (scanRecord()) return true;
+            fill();
+        }
+    }
+
+    int fieldCount() { return count; }
+
+    // Stream offset of the first byte of the current record
+    long recordOffset() { return bufferOffset + recordStart; }
+
+    // Stream offset just past the current record and its line break
+    long position() { return bufferOffset + pos; }
+
+    // False when the current record was cut off by the end of input rather than
+    // a line break, e.g. a line that is still being appended to the file
+    boolean isLineTerminated() {
+        return pos > recordEnd;
+    }
+
+    boolean isEmpty(int field) {
+        check(field);
+        return trimStart(field) == trimEnd(field);
+    }
+
+    // Field as text. This is the only accessor that allocates.
+    String getString(int field) {
+        check(field);
+        String s = new String(buf, starts[field], ends[field] - starts[field], StandardCharsets.UTF_8);
+        return escaped[field] ? s.replace("\"\"", "\"") : s;
+    }
+
+    // Copy of the field's bytes, for keys that must outlive the record
+    byte[] getBytes(int field) {
+        check(field);
+        return Arrays.copyOfRange(buf, starts[field], ends[field]);
+    }
+
+    // Hash of the field's bytes, consistent with Arrays.hashCode(getBytes(field))
+    int fieldHash(int field) {
+        check(field);
+        int h = 1;
+        for (int i = starts[field]; i < ends[field]; i++) h = 31 * h + buf[i];
+        return h;
+    }
+
+    // True when the field's bytes equal key
+    boolean fieldEquals(int field, byte[] key) {
+        check(field);
+        return Arrays.equals(buf, starts[field], ends[field], key, 0, key.length);
+    }
+
+    // Raw text of the record from the given field to the end of the line
+    String getRaw(int fromField) {
+        check(fromField);
+        int from = starts[fromField];
+        if (from > recordStart && buf[from - 1] == '"') from--; // keep the opening quote
+        return new String(buf, from, recordEnd - from, StandardCharsets.UTF_8);
+    }
+
+    // Parses a decimal number. Plain values like "12.5" or "-3e2" take an
+    // exact allocation-free path, anything unusual falls back to Double.parseDouble.
+    double parseDouble(int field) {
+        check(field);
+        int i = trimStart(field), end = trimEnd(field);
+        if (i == end) throw new NumberFormatException("empty field " + field);
+
+        boolean negative = buf[i] == '-';
+        if (negative || buf[i] == '+') i++;
+
+        long mantissa = 0;
+        int digits = 0, exponent = 0;
+        while (i < end && isDigit(buf[i])) {
+            mantissa = mantissa * 10 + (buf[i++] - '0');
+            digits++;
+        }
+        if (i < end && buf[i] == '.') {
+            i++;
+            while (i < end && isDigit(buf[i])) {
+                mantissa = mantissa * 10 + (buf[i++] - '0');
+                digits++;
+                exponent--;
+            }
+        }
+        if (digits > 0 && i < end && (buf[i] == 'e' || buf[i] == 'E')) {
+            i++;
+            boolean expNegative = i < end && buf[i] == '-';
+            if (i < end && (buf[i] == '-' || buf[i] == '+')) i++;
+            int e = 0, expDigits = 0;
+            while (i < end && isDigit(buf[i]) && expDigits < 4) {
+                e = e * 10 + (buf[i++] - '0');
+                expDigits++;
+            }
+            if (expDigits == 0) return slowDouble(field);
+            exponent += expNegative ? -e : e;
+        }
+
+        // Exact when the mantissa fits in 53 bits and 10^|exponent| is exact
+        if (i != end || digits == 0 || digits > 18 || mantissa >= (1L << 53)
+                || exponent < -22 || exponent > 22) {
+            return slowDouble(field);
+        }
+        double value = exponent < 0 ? mantissa / POW10[-exponent] : mantissa * POW10[exponent];
+        return negative ? -value : value;
+    }
+
+    // Parses an ISO date (yyyy-MM-dd, month and day may be one digit) into days since 1970-01-01
+    int parseEpochDay(int field) {
+        check(field);
+        int i = trimStart(field), end = trimEnd(field);
+
+        int year = 0, yearDigits = 0;
+        while (i < end && isDigit(buf[i]) && yearDigits < 9) {
+            year = year * 10 + (buf[i++] - '0');
+            yearDigits++;
+        }
+        if (yearDigits == 0 || i >= end || buf[i++] != '-') throw badDate(field);
+
+        int month = 0, monthDigits = 0;
+        while (i < end && isDigit(buf[i]) && monthDigits < 2) {
+            month = month * 10 + (buf[i++] - '0');
+            monthDigits++;
+        }
+        if (monthDigits == 0 || i >= end || buf[i++] != '-') throw badDate(field);
+
+        int day = 0, dayDigits = 0;
+        while (i < end && isDigit(buf[i]) && dayDigits < 2) {
+            day = day * 10 + (buf[i++] - '0');
+            dayDigits++;
+        }
+        if (dayDigits == 0 || i != end || month < 1 || month > 12
+                || day < 1 || day > lengthOfMonth(year, month)) {
+            throw badDate(field);
+        }
+        return epochDay(year, month, day);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // Days since 1970-01-01 for a proleptic Gregorian date (same result as LocalDate.toEpochDay)
+    static int epochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y;
+        total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) total -= isLeapYear(year) ? 1 : 2;
+        return (int) (total - 719528); // days from year 0 to 1970
+    }
+
+    static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2: return isLeapYear(year) ? 29 : 28;
+            case 4: case 6: case 9: case 11: return 30;
+            default: return 31;
+        }
+    }
+
+    // Scans one record starting at pos. Returns false when the buffer ends
+    // before the record does and more input may still arrive.
+    private boolean scanRecord() {
+        int i = pos;
+        count = 0;
+        while (true) {
+            int start, end;
+            boolean hasEscapes = false;
+            if (i < limit && buf[i] == '"') {
+                start = ++i;
+                while (true) {
+                    if (i >= limit) return finishAtEof(i, start);
+                    if (buf[i] == '"') {
+                        if (i + 1 >= limit && !eof) return false;
+                        if (i + 1 < limit && buf[i + 1] == '"') {
+                            hasEscapes = true;
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                end = i++;
+                // Ignore anything between the closing quote and the next delimiter
+                while (i < limit && buf[i] != ',' && buf[i] != '\n' && buf[i] != '\r') i++;
+            } else {
+                start = i;
+                while (i < limit && buf[i] != ',' && buf[i] != '\n' && buf[i] != '\r') i++;
+                end = i;
+            }
+            if (i >= limit && !eof) return false;
+
+            addField(start, end, hasEscapes);
+            if (i >= limit) {
+                setRecord(i, limit);
+                return true;
+            }
+            if (buf[i] == ',') {
+                i++;
+                continue;
+            }
+
+            int lineEnd = i;
+            if (buf[i] == '\r') {
+                if (i + 1 >= limit && !eof) return false;
+                i++;
+                if (i < limit && buf[i] == '\n') i++;
+            } else {
+                i++;
+            }
+            setRecord(lineEnd, i);
+            return true;
+        }
+    }
+
+    // An unterminated quote at end of input: take the rest of the data as the field
+    private boolean finishAtEof(int i, int start) {
+        if (!eof) return false;
+        addField(start, i, false);
+        setRecord(i, i);
+        return true;
+    }
+
+    private void setRecord(int lineEnd, int next) {
+        recordStart = pos;
+        recordEnd = lineEnd;
+        pos = next;
+    }
+
+    private void addField(int start, int end, boolean hasEscapes) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+            escaped = Arrays.copyOf(escaped, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        escaped[count] = hasEscapes;
+        count++;
+    }
+
+    // Shifts the unread part of the buffer to the front and reads more input
+    private void fill() throws IOException {
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, limit - pos);
+            bufferOffset += pos;
+            limit -= pos;
+            pos = 0;
+        }
+        if (limit == buf.length) buf = Arrays.copyOf(buf, buf.length * 2); // record longer than buffer
+        int n = in.read(buf, limit, buf.length - limit);
+        if (n < 0) eof = true;
+        else limit += n;
+    }
+
+    private int trimStart(int field) {
+        int i = starts[field], end = ends[field];
+        while (i < end && (buf[i] == ' ' || buf[i] == '\t')) i++;
+        return i;
+    }
+
+    private int trimEnd(int field) {
+        int start = starts[field], end = ends[field];
+        while (end > start && (buf[end - 1] == ' ' || buf[end - 1] == '\t')) end--;
+        return end;
+    }
+
+    private double slowDouble(int field) {
+        return Double.parseDouble(new String(buf, starts[field], ends[field] - starts[field],
+                                             StandardCharsets.ISO_8859_1).trim());
+    }
+
+    private IllegalArgumentException badDate(int field) {
+        return new IllegalArgumentException("Invalid date in field " + field + ": " + getString(field));
+    }
+
+    private void check(int field) {
+        if (field < 0 || field >= count) {
+            throw new IndexOutOfBoundsException("field " + field + " of " + count);
+        }
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
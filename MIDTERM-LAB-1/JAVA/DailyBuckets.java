@@ -0,0 +1,164 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Per-day sales totals built in one pass over the CSV, optionally split by
+// the value of another column. Days are not hashed: each group keeps a dense
+// array indexed by (epoch day - the group's base), spanning only that group's
+// own dates and grown on either end as new ones show up.
+// Rolling metrics then run over calendar days, with days that have no rows
+// counting as zero sales.
+class DailyBuckets {
+    private final int groupColumn;  // -1 for a single group holding every row
+
+    private int groupCount;
+    private byte[][] groupKeys = new byte[4][];
+    private int[] groupHashes = new int[4];
+    private double[][] totals = new double[4][];  // [group][day - bases[group]], null until the first row
+    private int[][] rows = new int[4][];          // rows seen per day, 0 = no data
+    private int[] bases = new int[4];             // epoch day stored at index 0 of each group
+    private int[] minDays = new int[4], maxDays = new int[4];  // first and last day with rows per group
+    private int[] slots = new int[16];            // open-addressing index: group + 1, 0 = empty
+
+    DailyBuckets(int groupColumn) {
+        this.groupColumn = groupColumn;
+        if (groupColumn < 0) newGroup(new byte[0], 0); // the single group, index 0
+    }
+
+    // Parses the current CSV record into its day bucket, false for rows that are skipped
+    boolean readRecord(CsvTokenizer csv) {
+        if (csv.fieldCount() < 13 || groupColumn >= csv.fieldCount()) return false;
+        try {
+            // release_date is column 13 (index 12), total_sales is column 8 (index 7)
+            int day = csv.parseEpochDay(12);
+            double sales = csv.parseDouble(7);
+            add(groupColumn < 0 ? 0 : groupOf(csv), day, sales, 1);
+            return true;
+        } catch (IllegalArgumentException e) {
+            // Skip invalid rows silently
+            return false;
+        }
+    }
+
+    // Adds every bucket of another instance (for example a parallel chunk)
+    void addAll(DailyBuckets other) {
+        for (int g = 0; g < other.groupCount; g++) {
+            if (other.totals[g] == null) continue;
+            int group = groupOf(other.groupKeys[g], other.groupHashes[g]);
+            int first = other.minDays[g], last = other.maxDays[g];
+            ensureDay(group, first);  // grow once for the whole range
+            ensureDay(group, last);
+            for (int day = first; day <= last; day++) {
+                int i = day - other.bases[g];
+                if (other.rows[g][i] > 0) add(group, day, other.totals[g][i], other.rows[g][i]);
+            }
+        }
+    }
+
+    int groupCount() { return groupCount; }
+
+    String groupName(int group) {
+        return new String(groupKeys[group], StandardCharsets.UTF_8);
+    }
+
+    // Walks one group's calendar days from its first to its last dated row,
+    // feeding every day (empty ones as 0) to the aggregates and reporting the days that had rows
+    void forEachDay(int group, RollingAggregate[] aggregates, DayVisitor visitor) {
+        if (totals[group] == null) return; // no dated rows at all
+        double[] values = new double[aggregates.length];
+        int[] count = rows[group];
+        double[] total = totals[group];
+        int base = bases[group];
+        for (int i = minDays[group] - base, last = maxDays[group] - base; i <= last; i++) {
+            for (int k = 0; k < aggregates.length; k++) values[k] = aggregates[k].push(total[i]);
+            if (count[i] > 0) visitor.visit(base + i, total[i], count[i], values);
+        }
+    }
+
+    interface DayVisitor {
+        void visit(int epochDay, double sales, int rowCount, double[] values);
+    }
+
+    private void add(int group, int day, double sales, int rowCount) {
+        ensureDay(group, day);
+        totals[group][day - bases[group]] += sales;
+        rows[group][day - bases[group]] += rowCount;
+    }
+
+    // Grows one group's arrays so index day - bases[group] is valid; other groups are untouched
+    private void ensureDay(int group, int day) {
+        if (totals[group] == null) {
+            bases[group] = day - 8;
+            totals[group] = new double[16];
+            rows[group] = new int[16];
+            minDays[group] = maxDays[group] = day;
+            return;
+        }
+        int base = bases[group], capacity = totals[group].length;
+        int minDay = minDays[group], maxDay = maxDays[group];
+        if (day < base || day >= base + capacity) {
+            int low = Math.min(minDay, day), high = Math.max(maxDay, day);
+            int newCapacity = Math.max(capacity * 2, (high - low + 1) * 2);
+            int newBase = low - (newCapacity - (high - low + 1)) / 2; // leave room on both ends
+            double[] t = new double[newCapacity];
+            int[] r = new int[newCapacity];
+            System.arraycopy(totals[group], minDay - base, t, minDay - newBase, maxDay - minDay + 1);
+            System.arraycopy(rows[group], minDay - base, r, minDay - newBase, maxDay - minDay + 1);
+            totals[group] = t;
+            rows[group] = r;
+            bases[group] = newBase;
+        }
+        minDays[group] = Math.min(minDay, day);
+        maxDays[group] = Math.max(maxDay, day);
+    }
+
+    // Group id of the current record's group column, added on first sight
+    private int groupOf(CsvTokenizer csv) {
+        int hash = csv.fieldHash(groupColumn);
+        int mask = slots.length - 1;
+        for (int s = hash & mask; ; s = (s + 1) & mask) {
+            int g = slots[s] - 1;
+            if (g < 0) return newGroup(csv.getBytes(groupColumn), hash);
+            if (groupHashes[g] == hash && csv.fieldEquals(groupColumn, groupKeys[g])) return g;
+        }
+    }
+
+    private int groupOf(byte[] key, int hash) {
+        int mask = slots.length - 1;
+        for (int s = hash & mask; ; s = (s + 1) & mask) {
+            int g = slots[s] - 1;
+            if (g < 0) return newGroup(key, hash);
+            if (groupHashes[g] == hash && Arrays.equals(groupKeys[g], key)) return g;
+        }
+    }
+
+    private int newGroup(byte[] key, int hash) {
+        if (groupCount == groupKeys.length) {
+            int n = groupCount * 2;
+            groupKeys = Arrays.copyOf(groupKeys, n);
+            groupHashes = Arrays.copyOf(groupHashes, n);
+            totals = Arrays.copyOf(totals, n);
+            rows = Arrays.copyOf(rows, n);
+            bases = Arrays.copyOf(bases, n);
+            minDays = Arrays.copyOf(minDays, n);
+            maxDays = Arrays.copyOf(maxDays, n);
+        }
+        int g = groupCount++;
+        groupKeys[g] = key;
+        groupHashes[g] = hash;
+
+        if (groupCount * 2 > slots.length) {
+            slots = new int[slots.length * 2];
+            for (int i = 0; i < groupCount; i++) insertSlot(i);
+        } else {
+            insertSlot(g);
+        }
+        return g;
+    }
+
+    private void insertSlot(int group) {
+        int mask = slots.length - 1;
+        int s = groupHashes[group] & mask;
+        while (slots[s] != 0) s = (s + 1) & mask;
+        slots[s] = group + 1;
+    }
+}
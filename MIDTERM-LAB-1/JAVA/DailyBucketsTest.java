@@ -0,0 +1,81 @@
+import java.io.*;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Checks --group-by bucketing on a high-cardinality column: a generated file
+// where almost every title is its own group, dated over 40 years, plus a few
+// titles that recur in every chunk. Every group's days and totals must match
+// a plain map built from the same rows, and memory must follow each group's
+// own dates (a shared date span per group would need tens of GB here).
+// Usage: java -Xmx256m DailyBucketsTest [rows]   (default 200,000 rows)
+public class DailyBucketsTest {
+    private static final int TITLE_COLUMN = 1;
+    private static final int SERIES = 50;           // recurring titles
+    private static final int FIRST_DAY = (int) LocalDate.of(1985, 1, 1).toEpochDay();
+    private static final int SPAN = 40 * 365;
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        File file = File.createTempFile("daily-buckets", ".csv");
+        file.deleteOnExit();
+        Map<String, TreeMap<Integer, double[]>> expected = generate(file, rows);
+
+        DailyBuckets buckets = new DailyBuckets(TITLE_COLUMN);
+        for (DailyBuckets part : ParallelSalesLoader.loadChunks(file,
+                () -> new DailyBuckets(TITLE_COLUMN), (csv, b) -> b.readRecord(csv))) {
+            buckets.addAll(part);
+        }
+
+        check(buckets.groupCount() == expected.size(),
+              "groups: " + buckets.groupCount() + ", expected " + expected.size());
+        for (int g = 0; g < buckets.groupCount(); g++) {
+            String title = buckets.groupName(g);
+            TreeMap<Integer, double[]> days = expected.get(title);
+            check(days != null, "unexpected group " + title);
+            int[] previous = {Integer.MIN_VALUE};
+            int[] seen = {0};
+            buckets.forEachDay(g, new RollingAggregate[0], (day, sales, rowCount, values) -> {
+                double[] want = days.get(day);
+                check(day > previous[0], title + ": days out of order");
+                check(want != null, title + ": unexpected day " + LocalDate.ofEpochDay(day));
+                check(Math.abs(want[0] - sales) < 1e-6 && want[1] == rowCount,
+                      title + " " + LocalDate.ofEpochDay(day) + ": " + sales + "/" + rowCount
+                      + ", expected " + want[0] + "/" + (int) want[1]);
+                previous[0] = day;
+                seen[0]++;
+            });
+            check(seen[0] == days.size(), title + ": " + seen[0] + " days, expected " + days.size());
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("OK: %,d rows, %,d groups, %,d MB heap in use%n", rows, buckets.groupCount(),
+                          (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+    }
+
+    // Writes the sales file and returns the sales and row count per title and day
+    private static Map<String, TreeMap<Integer, double[]>> generate(File file, int rows) throws IOException {
+        Map<String, TreeMap<Integer, double[]>> expected = new HashMap<>();
+        try (PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(file), 1 << 16))) {
+            pw.println("img,title,console,genre,publisher,developer,critic_score,total_sales,"
+                     + "na_sales,jp_sales,pal_sales,other_sales,release_date,last_update");
+            for (int i = 0; i < rows; i++) {
+                String title = i % 10 == 0 ? "Series " + (i / 10) % SERIES : "Game " + i;
+                int day = FIRST_DAY + (int) ((i * 7919L) % SPAN);
+                double sales = (i % 20) + (i % 100) / 100.0;
+                pw.printf("/img/%d.jpg,%s,PS4,Action,Publisher,Developer,8.1,%d.%02d,"
+                        + "0.5,0.1,0.2,0.05,%s,2024-01-01%n", i, title, i % 20, i % 100, LocalDate.ofEpochDay(day));
+                double[] bucket = expected.computeIfAbsent(title, t -> new TreeMap<>())
+                                          .computeIfAbsent(day, d -> new double[2]);
+                bucket[0] += sales;
+                bucket[1]++;
+            }
+        }
+        return expected;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,115 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.zip.CRC32;
+
+// Incremental mode for sales files that only ever grow by appended, date-ordered rows.
+// After each run a small checkpoint is saved next to the input (<file>.ckpt):
+// the byte offset read so far, the last date seen and the state of every
+// rolling aggregate. The next run seeks straight to that offset, parses only
+// the new tail and reports just the new rows, so its cost follows the size of
+// the delta instead of the whole history.
+class IncrementalSales {
+    private static final String MAGIC = "SALESCKP";
+    private static final int VERSION = 1;
+    private static final int TAIL_CHECK = 4096;  // bytes before the offset that must be unchanged
+
+    static void process(File file, SalesOptions options, ReportSink sink) throws IOException {
+        File checkpoint = checkpointFor(file);
+        RollingAggregate[] aggregates = options.newAggregates();
+        long offset = 0;
+        int lastDay = Integer.MIN_VALUE;
+
+        if (checkpoint.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(checkpoint)))) {
+                byte[] magic = new byte[MAGIC.length()];
+                in.readFully(magic);
+                if (!MAGIC.equals(new String(magic, StandardCharsets.US_ASCII)) || in.readInt() != VERSION) {
+                    throw new IOException(checkpoint + " is not a sales checkpoint");
+                }
+                String metrics = in.readUTF();
+                if (!metrics.equals(options.metrics)) {
+                    throw new IOException(checkpoint + " was saved for --metrics " + metrics
+                                          + "; delete it to start over with " + options.metrics);
+                }
+                offset = in.readLong();
+                lastDay = in.readInt();
+                long tailCrc = in.readLong();
+                if (file.length() < offset || tailCrc(file, offset) != tailCrc) {
+                    throw new IOException(file + " changed since " + checkpoint
+                                          + " was saved (not just appended to); delete it to start over");
+                }
+                for (RollingAggregate a : aggregates) a.readState(in);
+            } catch (EOFException e) {
+                throw new IOException(checkpoint + " is truncated; delete it to start over");
+            }
+        }
+
+        sink.header(false, aggregates);
+        double[] values = new double[aggregates.length];
+        long end = offset;
+        try (FileInputStream in = new FileInputStream(file)) {
+            in.getChannel().position(offset);
+            CsvTokenizer csv = new CsvTokenizer(in);
+            boolean header = offset == 0;
+            SalesTable row = new SalesTable(1);
+            // A last line without its line break may still be being written; leave it for the next run
+            while (csv.next() && csv.isLineTerminated()) {
+                end = offset + csv.position();
+                if (header) {
+                    header = false; // Skip header row
+                    continue;
+                }
+                if (!SalesProcessor.readRecord(csv, row)) continue;
+                int day = row.epochDay(0);
+                double sales = row.sales(0);
+                row.clear();
+                if (day < lastDay) {
+                    throw new IOException(file + ": row at byte " + (offset + csv.recordOffset()) + " is dated "
+                                          + LocalDate.ofEpochDay(day) + ", before " + LocalDate.ofEpochDay(lastDay)
+                                          + "; --incremental needs rows appended in date order");
+                }
+                lastDay = day;
+                for (int k = 0; k < aggregates.length; k++) values[k] = aggregates[k].push(sales);
+                sink.row(null, day, sales, values);
+            }
+        }
+
+        save(checkpoint, options.metrics, end, lastDay, tailCrc(file, end), aggregates);
+    }
+
+    static File checkpointFor(File file) {
+        return new File(file.getPath() + ".ckpt");
+    }
+
+    // Written to a temp file and renamed, so a crash never leaves half a checkpoint
+    private static void save(File checkpoint, String metrics, long offset, int lastDay, long tailCrc,
+                             RollingAggregate[] aggregates) throws IOException {
+        File temp = new File(checkpoint.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeBytes(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(metrics);
+            out.writeLong(offset);
+            out.writeInt(lastDay);
+            out.writeLong(tailCrc);
+            for (RollingAggregate a : aggregates) a.writeState(out);
+        }
+        Files.move(temp.toPath(), checkpoint.toPath(),
+                   StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // CRC of the last few KB before offset, to notice a file that was rewritten rather than appended to
+    private static long tailCrc(File file, long offset) throws IOException {
+        int length = (int) Math.min(offset, TAIL_CHECK);
+        byte[] bytes = new byte[length];
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(offset - length);
+            raf.readFully(bytes);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+}
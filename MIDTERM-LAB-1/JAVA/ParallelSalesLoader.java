@@ -0,0 +1,128 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+// Loads a sales CSV on every core. The file is split into newline-aligned
+// chunks, each chunk is memory-mapped and parsed into its own SalesTable (or
+// other part, see loadChunks) on a fork-join worker, and the chunk results are
+// merged in file order so the result matches a single-threaded read row for row.
+// Chunks are cut at line breaks, so quoted fields must not contain line breaks.
+class ParallelSalesLoader {
+    static final long MIN_CHUNK = 1L << 20;   // 1 MB
+    static final long MAX_CHUNK = 64L << 20;  // 64 MB, well under the 2 GB map limit
+
+    static SalesTable load(File file) throws IOException {
+        List<SalesTable> parts = loadChunks(file, SalesTable::new, SalesProcessor::readRecord);
+        int total = 0;
+        for (SalesTable part : parts) total += part.size();
+        SalesTable table = new SalesTable(total);
+        for (SalesTable part : parts) table.addAll(part);
+        return table;
+    }
+
+    // Parses every chunk into its own part (made by newPart, filled record by
+    // record by reader) and returns the parts in file order for the caller to merge
+    static <T> List<T> loadChunks(File file, Supplier<T> newPart, BiConsumer<CsvTokenizer, T> reader)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long dataStart = nextLineStart(channel, 0, size); // skip header row
+            List<T> parts = new ArrayList<>();
+            if (dataStart >= size) return parts;
+
+            // About four chunks per worker keeps every core busy even when chunks parse unevenly
+            int workers = ForkJoinPool.commonPool().getParallelism();
+            long target = Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, (size - dataStart) / (workers * 4L)));
+
+            List<ChunkTask<T>> tasks = new ArrayList<>();
+            long start = dataStart;
+            while (start < size) {
+                long end = start + target >= size ? size : nextLineStart(channel, start + target, size);
+                tasks.add(new ChunkTask<>(channel, start, end, newPart.get(), reader));
+                start = end;
+            }
+
+            ForkJoinTask.invokeAll(tasks);
+            for (ChunkTask<T> task : tasks) parts.add(task.getRawResult());
+            return parts;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Offset just past the first '\n' at or after from, or size if there is none
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(8192);
+        long pos = from;
+        while (pos < size) {
+            buf.clear();
+            int n = channel.read(buf, pos);
+            if (n <= 0) break;
+            for (int i = 0; i < n; i++) {
+                if (buf.get(i) == '\n') return pos + i + 1;
+            }
+            pos += n;
+        }
+        return size;
+    }
+
+    // Parses one mapped chunk [start, end) of the file into its part
+    private static class ChunkTask<T> extends RecursiveTask<T> {
+        private final FileChannel channel;
+        private final long start, end;
+        private final T part;
+        private final BiConsumer<CsvTokenizer, T> reader;
+
+        ChunkTask(FileChannel channel, long start, long end, T part, BiConsumer<CsvTokenizer, T> reader) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.part = part;
+            this.reader = reader;
+        }
+
+        @Override
+        protected T compute() {
+            try {
+                MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                try (CsvTokenizer csv = new CsvTokenizer(new ByteBufferInputStream(map))) {
+                    while (csv.next()) {
+                        reader.accept(csv, part);
+                    }
+                }
+                return part;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Feeds a (mapped) buffer to CsvTokenizer with bulk copies
+    static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buf;
+
+        ByteBufferInputStream(ByteBuffer buf) { this.buf = buf; }
+
+        @Override
+        public int read() {
+            return buf.hasRemaining() ? buf.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buf.hasRemaining()) return -1;
+            int n = Math.min(len, buf.remaining());
+            buf.get(b, off, n);
+            return n;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Locale;
+
+// Destination for SalesProcessor results. Rows are formatted straight into
+// one reused byte buffer and written out in large blocks, instead of one
+// printf and String.format per value on the synchronized System.out.
+// Formats: table (the human-readable default), csv, tsv and binary.
+abstract class ReportSink implements Closeable {
+    static final int FLUSH_AT = 1 << 16;
+
+    final OutputStream out;
+    byte[] buf = new byte[FLUSH_AT + 4096];
+    int len;
+    long rows;  // rows written so far
+
+    ReportSink(OutputStream out) {
+        this.out = out;
+    }
+
+    static ReportSink open(String format, OutputStream out) {
+        switch (format) {
+            case "table": return new TextSink(out, TextSink.TABLE);
+            case "csv": return new TextSink(out, TextSink.CSV);
+            case "tsv": return new TextSink(out, TextSink.TSV);
+            case "binary": return new BinarySink(out);
+            default: throw new IllegalArgumentException("Unknown format " + format + " (use table, csv, tsv, binary)");
+        }
+    }
+
+    // Starts the report; grouped adds a leading group column
+    abstract void header(boolean grouped, RollingAggregate[] aggregates) throws IOException;
+
+    // One result row; group is null for ungrouped reports, NaN values mean "no value"
+    abstract void row(String group, int epochDay, double sales, double[] values) throws IOException;
+
+    long rowCount() { return rows; }
+
+    void flush() throws IOException {
+        out.write(buf, 0, len);
+        len = 0;
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        out.close();
+    }
+
+    // Called after each row: writes the buffer once it holds a full block
+    void endRow() throws IOException {
+        if (len >= FLUSH_AT) {
+            out.write(buf, 0, len);
+            len = 0;
+        }
+    }
+
+    // Grows the buffer so n more bytes fit (rows are never split across writes)
+    void ensure(int n) {
+        if (len + n > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + n));
+    }
+
+    // Human table, CSV or TSV
+    static class TextSink extends ReportSink {
+        static final int TABLE = 0, CSV = 1, TSV = 2;
+        private static final byte[] NEWLINE = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+        private final int style;
+        private String lastGroup;    // group names repeat, so their bytes are cached
+        private byte[] groupBytes;
+
+        TextSink(OutputStream out, int style) {
+            super(out);
+            this.style = style;
+        }
+
+        @Override
+        void header(boolean grouped, RollingAggregate[] aggregates) throws IOException {
+            if (grouped) {
+                text(style == TABLE ? "Group" : "group");
+                pad(5, 20);
+                separator();
+            }
+            text(style == TABLE ? "Date" : "date");
+            pad(4, 12);
+            separator();
+            text(style == TABLE ? "Sales" : "sales");
+            pad(5, 10);
+            for (RollingAggregate a : aggregates) {
+                separator();
+                int start = len;
+                field(a.label().getBytes(StandardCharsets.UTF_8));
+                pad(len - start, 15);
+            }
+            newline();
+            endRow();
+        }
+
+        @Override
+        void row(String group, int epochDay, double sales, double[] values) throws IOException {
+            if (group != null) {
+                if (!group.equals(lastGroup)) {
+                    lastGroup = group;
+                    groupBytes = group.getBytes(StandardCharsets.UTF_8);
+                }
+                int start = len;
+                field(groupBytes);
+                pad(len - start, 20);
+                separator();
+            }
+            int start = len;
+            appendDate(epochDay);
+            pad(len - start, 12);
+            separator();
+            start = len;
+            appendFixed2(sales);
+            pad(len - start, 10);
+            for (double v : values) {
+                separator();
+                start = len;
+                if (Double.isNaN(v)) {
+                    if (style == TABLE) text("-");
+                } else {
+                    appendFixed2(v);
+                }
+                pad(len - start, 15);
+            }
+            newline();
+            rows++;
+            endRow();
+        }
+
+        private void separator() {
+            text(style == TABLE ? " | " : style == CSV ? "," : "\t");
+        }
+
+        private void newline() {
+            if (style == TABLE) {
+                ensure(NEWLINE.length);
+                System.arraycopy(NEWLINE, 0, buf, len, NEWLINE.length);
+                len += NEWLINE.length;
+            } else {
+                text("\n");
+            }
+        }
+
+        // Left-justifies the last field to width, like %-Ns (table only)
+        private void pad(int written, int width) {
+            if (style != TABLE) return;
+            ensure(width);
+            while (written++ < width) buf[len++] = ' ';
+        }
+
+        // Writes a text field, quoting it for CSV when needed
+        private void field(byte[] bytes) {
+            boolean quote = false;
+            if (style == CSV) {
+                for (byte b : bytes) {
+                    if (b == ',' || b == '"' || b == '\n' || b == '\r') quote = true;
+                }
+            }
+            ensure(bytes.length * 2 + 2);
+            if (!quote) {
+                System.arraycopy(bytes, 0, buf, len, bytes.length);
+                len += bytes.length;
+                return;
+            }
+            buf[len++] = '"';
+            for (byte b : bytes) {
+                if (b == '"') buf[len++] = '"';
+                buf[len++] = b;
+            }
+            buf[len++] = '"';
+        }
+
+        private void text(String ascii) {
+            ensure(ascii.length());
+            for (int i = 0; i < ascii.length(); i++) buf[len++] = (byte) ascii.charAt(i);
+        }
+
+        // yyyy-MM-dd without building a LocalDate (civil-from-days)
+        private void appendDate(int epochDay) {
+            long z = epochDay + 719468L;
+            long era = (z >= 0 ? z : z - 146096) / 146097;
+            long doe = z - era * 146097;
+            long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+            long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+            long mp = (5 * doy + 2) / 153;
+            int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+            int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+            long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+            if (year < 0 || year > 9999) {
+                text(LocalDate.ofEpochDay(epochDay).toString());
+                return;
+            }
+            ensure(10);
+            int y = (int) year;
+            buf[len++] = (byte) ('0' + y / 1000);
+            buf[len++] = (byte) ('0' + y / 100 % 10);
+            buf[len++] = (byte) ('0' + y / 10 % 10);
+            buf[len++] = (byte) ('0' + y % 10);
+            buf[len++] = '-';
+            buf[len++] = (byte) ('0' + month / 10);
+            buf[len++] = (byte) ('0' + month % 10);
+            buf[len++] = '-';
+            buf[len++] = (byte) ('0' + day / 10);
+            buf[len++] = (byte) ('0' + day % 10);
+        }
+
+        // Same text as String.format("%.2f", v). Values that sit on a rounding
+        // tie (or are huge) go through String.format, everything else is
+        // rounded here, which matches it exactly away from ties.
+        private void appendFixed2(double v) {
+            double scaled = Math.abs(v) * 100;
+            double frac = scaled - Math.floor(scaled);
+            if (!(scaled < 1e14) || Math.abs(frac - 0.5) <= 4 * Math.ulp(scaled)) {
+                text(String.format(Locale.ROOT, "%.2f", v));
+                return;
+            }
+            long cents = Math.round(scaled);
+            ensure(24);
+            if (Double.doubleToRawLongBits(v) < 0) buf[len++] = '-';
+            appendLong(cents / 100);
+            int rest = (int) (cents % 100);
+            buf[len++] = '.';
+            buf[len++] = (byte) ('0' + rest / 10);
+            buf[len++] = (byte) ('0' + rest % 10);
+        }
+
+        private void appendLong(long n) {
+            int digits = 1;
+            for (long t = n; t >= 10; t /= 10) digits++;
+            for (int i = len + digits - 1; i >= len; i--) {
+                buf[i] = (byte) ('0' + n % 10);
+                n /= 10;
+            }
+            len += digits;
+        }
+    }
+
+    // Compact big-endian binary report:
+    //   header: "SALESRPT", int version (1), boolean grouped, int metric count, UTF label per metric
+    //   then records tagged by one byte:
+    //     'G' UTF name        - following rows belong to this group (grouped reports only)
+    //     'R' int epochDay, double sales, double per metric (NaN = no value)
+    static class BinarySink extends ReportSink {
+        private ByteBuffer view = ByteBuffer.wrap(buf);
+        private String lastGroup;
+
+        BinarySink(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        void header(boolean grouped, RollingAggregate[] aggregates) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream data = new DataOutputStream(bytes);
+            data.writeBytes("SALESRPT");
+            data.writeInt(1);
+            data.writeBoolean(grouped);
+            data.writeInt(aggregates.length);
+            for (RollingAggregate a : aggregates) data.writeUTF(a.label());
+            raw(bytes.toByteArray());
+            endRow();
+        }
+
+        @Override
+        void row(String group, int epochDay, double sales, double[] values) throws IOException {
+            if (group != null && !group.equals(lastGroup)) {
+                lastGroup = group;
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream data = new DataOutputStream(bytes);
+                data.writeByte('G');
+                data.writeUTF(group);
+                raw(bytes.toByteArray());
+            }
+            int n = 1 + 4 + 8 + 8 * values.length;
+            ensure(n);
+            ByteBuffer b = view();
+            b.position(len);
+            b.put((byte) 'R');
+            b.putInt(epochDay);
+            b.putDouble(sales);
+            for (double v : values) b.putDouble(v);
+            len += n;
+            rows++;
+            endRow();
+        }
+
+        private void raw(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, len, bytes.length);
+            len += bytes.length;
+        }
+
+        // The buffer may have been grown, so rewrap when needed
+        private ByteBuffer view() {
+            if (view.array() != buf) view = ByteBuffer.wrap(buf);
+            return view;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// A statistic over the last N values of a series, updated in O(1) per value
+// no matter how large N is. Specs look like "sma:3" or "ema:10,max:30".
+interface RollingAggregate {
+    // Adds the next value, returns the statistic or NaN until the window is full
+    double push(double value);
+
+    // Column title used in reports
+    String label();
+
+    // Saves the window state so a later run can continue the series (see IncrementalSales)
+    void writeState(DataOutput out) throws IOException;
+
+    // Restores state saved by writeState on an aggregate built from the same spec
+    void readState(DataInput in) throws IOException;
+
+    // Builds fresh aggregates from a comma-separated spec list
+    static RollingAggregate[] parseAll(String specs) {
+        List<RollingAggregate> list = new ArrayList<>();
+        for (String spec : specs.split(",")) {
+            if (!spec.isBlank()) list.add(parse(spec.trim()));
+        }
+        if (list.isEmpty()) throw new IllegalArgumentException("No metrics given");
+        return list.toArray(new RollingAggregate[0]);
+    }
+
+    // Builds one aggregate from "name:N" (sma, ema, wma, min, max, std)
+    static RollingAggregate parse(String spec) {
+        int colon = spec.indexOf(':');
+        if (colon < 0) throw new IllegalArgumentException("Expected name:N, got " + spec);
+        String name = spec.substring(0, colon).toLowerCase();
+        int n;
+        try {
+            n = Integer.parseInt(spec.substring(colon + 1).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid window size in " + spec);
+        }
+        if (n < 1) throw new IllegalArgumentException("Window size must be at least 1 in " + spec);
+
+        switch (name) {
+            case "sma": return new Sma(n);
+            case "ema": return new Ema(n);
+            case "wma": return new Wma(n);
+            case "min": return new Extreme(n, false);
+            case "max": return new Extreme(n, true);
+            case "std": return new StdDev(n);
+            default: throw new IllegalArgumentException("Unknown metric " + name + " (use sma, ema, wma, min, max, std)");
+        }
+    }
+
+    // Base for aggregates that keep the raw window in a ring buffer.
+    // Running sums drift slightly over millions of updates, so each time the
+    // ring wraps the state is rebuilt from the buffer (O(N) every N values).
+    abstract class Windowed implements RollingAggregate {
+        final double[] window;
+        int count;  // values in the window, at most window.length
+        int next;   // slot the next value goes into; when full it also holds the oldest
+
+        Windowed(int size) { window = new double[size]; }
+
+        @Override
+        public final double push(double value) {
+            if (count == window.length) {
+                double oldest = window[next];
+                window[next] = value;
+                slide(oldest, value);
+            } else {
+                window[next] = value;
+                count++;
+                grow(value);
+            }
+            if (++next == window.length) {
+                next = 0;
+                if (count == window.length) rebuild();
+            }
+            return count == window.length ? value() : Double.NaN;
+        }
+
+        // A value joins a window that is not yet full
+        abstract void grow(double value);
+
+        // The oldest value leaves a full window and a new one joins
+        abstract void slide(double oldest, double value);
+
+        // Recomputes the state from window[0..N), oldest first
+        abstract void rebuild();
+
+        // Forgets every value
+        abstract void clear();
+
+        abstract double value();
+
+        // The state is just the window, oldest value first
+        @Override
+        public void writeState(DataOutput out) throws IOException {
+            out.writeInt(count);
+            int oldest = count == window.length ? next : 0;
+            for (int i = 0; i < count; i++) out.writeDouble(window[(oldest + i) % window.length]);
+        }
+
+        // Replays the saved window, which rebuilds any derived sums
+        @Override
+        public void readState(DataInput in) throws IOException {
+            int saved = in.readInt();
+            if (saved < 0 || saved > window.length) throw new IOException("Bad state for " + label());
+            count = 0;
+            next = 0;
+            clear();
+            for (int i = 0; i < saved; i++) push(in.readDouble());
+        }
+    }
+
+    // Simple moving average: running sum of the window
+    class Sma extends Windowed {
+        private double sum;
+
+        Sma(int size) { super(size); }
+
+        void grow(double value) { sum += value; }
+
+        void slide(double oldest, double value) { sum += value - oldest; }
+
+        void rebuild() {
+            sum = 0;
+            for (double v : window) sum += v;
+        }
+
+        void clear() { sum = 0; }
+
+        double value() { return sum / window.length; }
+
+        public String label() { return window.length + "-Day Moving Avg"; }
+    }
+
+    // Weighted moving average with weights 1..N, newest value weighted N.
+    // Sliding by one lowers every weight by one: weighted -= sum, then the new value adds N.
+    class Wma extends Windowed {
+        private double sum, weighted;
+
+        Wma(int size) { super(size); }
+
+        void grow(double value) {
+            sum += value;
+            weighted += count * value;
+        }
+
+        void slide(double oldest, double value) {
+            weighted += window.length * value - sum;
+            sum += value - oldest;
+        }
+
+        void rebuild() {
+            sum = 0;
+            weighted = 0;
+            for (int i = 0; i < window.length; i++) {
+                sum += window[i];
+                weighted += (i + 1) * window[i];
+            }
+        }
+
+        void clear() {
+            sum = 0;
+            weighted = 0;
+        }
+
+        double value() { return weighted / (window.length * (window.length + 1) / 2.0); }
+
+        public String label() { return "WMA(" + window.length + ")"; }
+    }
+
+    // Rolling sample standard deviation with Welford's update, extended to removals
+    class StdDev extends Windowed {
+        private double mean, m2;
+
+        StdDev(int size) { super(size); }
+
+        void grow(double value) {
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+        }
+
+        void slide(double oldest, double value) {
+            double oldMean = mean;
+            mean += (value - oldest) / window.length;
+            m2 += (value - oldest) * (value - mean + oldest - oldMean);
+        }
+
+        void rebuild() {
+            mean = 0;
+            for (double v : window) mean += v;
+            mean /= window.length;
+            m2 = 0;
+            for (double v : window) m2 += (v - mean) * (v - mean);
+        }
+
+        void clear() {
+            mean = 0;
+            m2 = 0;
+        }
+
+        double value() {
+            return window.length < 2 ? 0 : Math.sqrt(Math.max(0, m2) / (window.length - 1));
+        }
+
+        public String label() { return "StdDev(" + window.length + ")"; }
+    }
+
+    // Exponential moving average, alpha = 2 / (N + 1), seeded with the SMA of the first N values
+    class Ema implements RollingAggregate {
+        private final int size;
+        private final double alpha;
+        private int count;
+        private double ema;
+
+        Ema(int size) {
+            this.size = size;
+            this.alpha = 2.0 / (size + 1);
+        }
+
+        @Override
+        public double push(double value) {
+            if (count < size) {
+                ema += value;
+                if (++count < size) return Double.NaN;
+                ema /= size;
+            } else {
+                ema += alpha * (value - ema);
+            }
+            return ema;
+        }
+
+        public String label() { return "EMA(" + size + ")"; }
+
+        @Override
+        public void writeState(DataOutput out) throws IOException {
+            out.writeInt(count);
+            out.writeDouble(ema);
+        }
+
+        @Override
+        public void readState(DataInput in) throws IOException {
+            count = in.readInt();
+            ema = in.readDouble();
+            if (count < 0 || count > size) throw new IOException("Bad state for " + label());
+        }
+    }
+
+    // Rolling min or max with a monotonic deque: each value enters and leaves
+    // the deque once, so updates are amortized O(1)
+    class Extreme implements RollingAggregate {
+        private final int size;
+        private final boolean max;
+        private final double[] values; // deque contents, circular
+        private final long[] seqs;     // position of each deque value in the series
+        private int head, length;
+        private long seq;
+
+        Extreme(int size, boolean max) {
+            this.size = size;
+            this.max = max;
+            this.values = new double[size];
+            this.seqs = new long[size];
+        }
+
+        @Override
+        public double push(double value) {
+            // Drop values the new one beats; they can never be the answer again
+            while (length > 0) {
+                int tail = (head + length - 1) % size;
+                if (max ? values[tail] > value : values[tail] < value) break;
+                length--;
+            }
+            // Drop the front once it falls out of the window
+            if (length > 0 && seqs[head] <= seq - size) {
+                head = (head + 1) % size;
+                length--;
+            }
+            int tail = (head + length) % size;
+            values[tail] = value;
+            seqs[tail] = seq;
+            length++;
+            seq++;
+            return seq < size ? Double.NaN : values[head];
+        }
+
+        public String label() { return (max ? "Max(" : "Min(") + size + ")"; }
+
+        @Override
+        public void writeState(DataOutput out) throws IOException {
+            out.writeLong(seq);
+            out.writeInt(length);
+            for (int i = 0; i < length; i++) {
+                int slot = (head + i) % size;
+                out.writeDouble(values[slot]);
+                out.writeLong(seqs[slot]);
+            }
+        }
+
+        @Override
+        public void readState(DataInput in) throws IOException {
+            seq = in.readLong();
+            length = in.readInt();
+            if (length < 0 || length > size) throw new IOException("Bad state for " + label());
+            head = 0;
+            for (int i = 0; i < length; i++) {
+                values[i] = in.readDouble();
+                seqs[i] = in.readLong();
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Non-interactive batch mode: processes many CSVs concurrently on a bounded
+// pool, writes one report per input and prints a timing and row-count summary.
+// Inputs may be files, directories (every *.csv inside) or globs such as data/2024-*.csv.
+class SalesBatch {
+    // Runs every input and returns the number that failed
+    static int run(SalesOptions options) throws IOException {
+        List<File> inputs = expand(options.paths);
+        if (inputs.isEmpty()) {
+            System.out.println("No input files found.");
+            return 0;
+        }
+
+        List<File> outputs = outputsFor(inputs, options);
+        int jobs = options.jobs > 0 ? options.jobs
+                 : Math.min(inputs.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(jobs);
+        long start = System.nanoTime();
+
+        List<Future<Result>> futures = new ArrayList<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            File input = inputs.get(i), output = outputs.get(i);
+            futures.add(pool.submit(() -> processOne(input, output, options)));
+        }
+        pool.shutdown();
+
+        long rows = 0;
+        int failed = 0;
+        System.out.printf("%-40s | %12s | %10s | %s%n", "Input", "Rows", "Time (ms)", "Output");
+        for (Future<Result> future : futures) {
+            Result r;
+            try {
+                r = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Batch interrupted");
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause()); // processOne reports its own errors
+            }
+            if (r.error == null) {
+                rows += r.rows;
+                System.out.printf("%-40s | %,12d | %,10d | %s%n", r.input.getName(), r.rows, r.millis, r.output);
+            } else {
+                failed++;
+                System.out.printf("%-40s | %12s | %,10d | FAILED: %s%n", r.input.getName(), "-", r.millis, r.error);
+            }
+        }
+
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("%d file(s), %d failed, %,d rows in %,d ms on %d thread(s)%n",
+                          inputs.size(), failed, rows, elapsed, jobs);
+        return failed;
+    }
+
+    private static Result processOne(File input, File output, SalesOptions options) {
+        Result result = new Result(input, output);
+        long start = System.nanoTime();
+        try (ReportSink sink = ReportSink.open(options.format, new FileOutputStream(result.output))) {
+            SalesProcessor.processFile(input, options, sink);
+            result.rows = sink.rowCount();
+        } catch (IOException | RuntimeException e) {
+            result.error = e.getMessage() != null ? e.getMessage() : e.toString();
+        }
+        result.millis = (System.nanoTime() - start) / 1_000_000;
+        return result;
+    }
+
+    // One report file per input. Inputs that would share one (a/sales.csv and
+    // b/sales.csv with --out-dir, or sales.csv and sales.tsv in one folder)
+    // get -2, -3, ... added in input order, so concurrent jobs never write
+    // over each other.
+    static List<File> outputsFor(List<File> inputs, SalesOptions options) throws IOException {
+        Set<File> taken = new HashSet<>();
+        List<File> outputs = new ArrayList<>(inputs.size());
+        for (File input : inputs) {
+            File output = outputFor(input, options, "");
+            for (int n = 2; !taken.add(output.getCanonicalFile()); n++) output = outputFor(input, options, "-" + n);
+            outputs.add(output);
+        }
+        return outputs;
+    }
+
+    // data/sales.csv -> <out-dir or data>/sales<suffix>.report.<txt|csv|tsv|bin>
+    static File outputFor(File input, SalesOptions options, String suffix) {
+        String name = input.getName();
+        int dot = name.lastIndexOf('.');
+        String stem = dot > 0 ? name.substring(0, dot) : name;
+        String ext;
+        switch (options.format) {
+            case "csv": ext = "csv"; break;
+            case "tsv": ext = "tsv"; break;
+            case "binary": ext = "bin"; break;
+            default: ext = "txt";
+        }
+        File dir = options.outDir != null ? new File(options.outDir) : input.getAbsoluteFile().getParentFile();
+        return new File(dir, stem + suffix + ".report." + ext);
+    }
+
+    // Turns files, directories and glob patterns into a sorted, de-duplicated file list
+    static List<File> expand(List<String> paths) throws IOException {
+        Set<File> files = new TreeSet<>();
+        for (String path : paths) {
+            File file = new File(path);
+            if (file.isDirectory()) {
+                addMatches(file.toPath(), "*.csv", files);
+            } else if (path.indexOf('*') >= 0 || path.indexOf('?') >= 0 || path.indexOf('[') >= 0) {
+                File parent = file.getParentFile();
+                addMatches(parent != null ? parent.toPath() : Paths.get("."), file.getName(), files);
+            } else if (file.isFile()) {
+                files.add(file);
+            } else {
+                throw new FileNotFoundException("No such input: " + path);
+            }
+        }
+        return new ArrayList<>(files);
+    }
+
+    private static void addMatches(Path dir, String glob, Set<File> files) throws IOException {
+        if (!Files.isDirectory(dir)) return;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, glob)) {
+            for (Path p : stream) {
+                if (Files.isRegularFile(p) && !p.getFileName().toString().contains(".report.")) files.add(p.toFile());
+            }
+        }
+    }
+
+    private static class Result {
+        final File input, output;
+        long rows, millis;
+        String error;
+
+        Result(File input, File output) {
+            this.input = input;
+            this.output = output;
+        }
+    }
+}
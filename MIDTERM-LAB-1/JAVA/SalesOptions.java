@@ -0,0 +1,84 @@
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+// Command-line settings for SalesProcessor.
+// Usage: SalesProcessor [--stream | --incremental] [--metrics sma:3,ema:10,...]
+//                       [--daily] [--group-by column]
+//                       [--format table|csv|tsv|binary] [--out file] [file.csv ...]
+//        SalesProcessor --batch [--jobs N] [--out-dir dir] [other options] file|dir|glob ...
+class SalesOptions {
+    boolean streaming;               // constant-memory mode (SalesStreamer)
+    boolean incremental;             // only read rows appended since the last run (IncrementalSales)
+    String metrics = "sma:3";        // rolling aggregates, see RollingAggregate.parse
+    boolean daily;                   // one row per calendar day instead of per record (DailyBuckets)
+    String groupBy;                  // header name or 0-based index of a column to group days by
+    String format = "table";         // report format, see ReportSink.open
+    String out;                      // report file, null for standard output
+    boolean batch;                   // no prompts, one report per input (SalesBatch)
+    int jobs;                        // batch threads, 0 = one per core
+    String outDir;                   // batch report folder, null = next to each input
+    List<String> paths = new ArrayList<>();
+
+    static SalesOptions parse(String[] args) {
+        SalesOptions options = new SalesOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--stream":
+                    options.streaming = true;
+                    break;
+                case "--incremental":
+                    options.incremental = true;
+                    break;
+                case "--metrics":
+                    options.metrics = value(args, ++i, arg);
+                    break;
+                case "--format":
+                    options.format = value(args, ++i, arg);
+                    break;
+                case "--out":
+                    options.out = value(args, ++i, arg);
+                    break;
+                case "--batch":
+                    options.batch = true;
+                    break;
+                case "--jobs":
+                    options.jobs = Integer.parseInt(value(args, ++i, arg));
+                    if (options.jobs < 1) throw new IllegalArgumentException("--jobs must be at least 1");
+                    break;
+                case "--out-dir":
+                    options.outDir = value(args, ++i, arg);
+                    break;
+                case "--daily":
+                    options.daily = true;
+                    break;
+                case "--group-by":
+                    options.groupBy = value(args, ++i, arg);
+                    options.daily = true;
+                    break;
+                default:
+                    if (arg.startsWith("--")) throw new IllegalArgumentException("Unknown option " + arg);
+                    options.paths.add(arg);
+            }
+        }
+        if (options.batch && options.paths.isEmpty()) throw new IllegalArgumentException("--batch needs input files");
+        if (options.batch && options.out != null) throw new IllegalArgumentException("Use --out-dir with --batch");
+        if (options.incremental && options.daily) {
+            throw new IllegalArgumentException("--incremental works per row, not with --daily or --group-by");
+        }
+        RollingAggregate.parseAll(options.metrics); // fail early on a bad spec
+        ReportSink.open(options.format, OutputStream.nullOutputStream());
+        return options;
+    }
+
+    // Fresh aggregates for one run, since they keep state
+    RollingAggregate[] newAggregates() {
+        return RollingAggregate.parseAll(metrics);
+    }
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) throw new IllegalArgumentException(option + " needs a value");
+        return args[i];
+    }
+}
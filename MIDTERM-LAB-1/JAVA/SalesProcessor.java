@@ -1,35 +1,66 @@
 import java.io.*;
 import java.util.*;
-import java.text.*;
-
-// DataRecord class to hold each row of the dataset
-class DataRecord {
-    private Date date;          // Release date
-    private double sales;       // Sales value
-    private Double movingAvg;   // 3-day moving average (nullable)
-
-    // Constructor initializes date and sales
-    public DataRecord(Date date, double sales) {
-        this.date = date;
-        this.sales = sales;
-    }
-
-    // Getter methods
-    public Date getDate() { return date; }
-    public double getSales() { return sales; }
-    public Double getMovingAvg() { return movingAvg; }
-
-    // Setter for moving average
-    public void setMovingAvg(Double movingAvg) { this.movingAvg = movingAvg; }
-}
 
 public class SalesProcessor {
     public static void main(String[] args) {
-        run(); // Entry point calls run method
+        SalesOptions options;
+        try {
+            options = SalesOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        if (options.batch) {
+            int failed;
+            try {
+                failed = SalesBatch.run(options);
+            } catch (IOException e) {
+                System.out.println("Error: " + e.getMessage());
+                failed = 1;
+            }
+            if (failed > 0) System.exit(1); // let pipelines notice
+            return;
+        }
+
+        if (options.paths.isEmpty()) {
+            run(options); // No file given, ask for one
+            return;
+        }
+
+        try (ReportSink sink = openSink(options)) {
+            for (String path : options.paths) {
+                try {
+                    processFile(new File(path), options, sink);
+                } catch (IOException e) {
+                    sink.flush();
+                    System.out.println("Error reading file: " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error writing report: " + e.getMessage());
+        }
+    }
+
+    // Report destination: --out file, or standard output (left open on close)
+    static ReportSink openSink(SalesOptions options) throws IOException {
+        OutputStream out = options.out != null
+            ? new FileOutputStream(options.out)
+            : new FilterOutputStream(System.out) {
+                  @Override public void write(byte[] b, int off, int len) { System.out.write(b, off, len); }
+                  @Override public void close() { System.out.flush(); }
+              };
+        return ReportSink.open(options.format, out);
     }
 
     // Method to handle user input and file validation
     public static void run() {
+        run(new SalesOptions());
+    }
+
+    // Same as run(), with the mode and metrics taken from the options
+    static void run(SalesOptions options) {
         Scanner sc = new Scanner(System.in);
         String path = "";
 
@@ -46,9 +77,9 @@ public class SalesProcessor {
             }
 
             // Try reading the file
-            try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-                processData(br); // Process the dataset
-                break;           // Exit loop after successful processing
+            try (ReportSink sink = openSink(options)) {
+                processFile(file, options, sink); // Process the dataset
+                break;                            // Exit loop after successful processing
             } catch (IOException e) {
                 System.out.println("Error reading file. Try again.");
             }
@@ -57,57 +88,102 @@ public class SalesProcessor {
         sc.close(); // Close scanner
     }
 
-    // Method to process CSV data
-    private static void processData(BufferedReader br) throws IOException {
-        List<DataRecord> records = new ArrayList<>();
-        String line;
-        br.readLine(); // Skip header row
-
-        // Read each line of the CSV
-        while ((line = br.readLine()) != null) {
-            String[] parts = line.split(",");
-
-            // Ensure enough columns exist
-            if (parts.length < 13) continue;
+    // Processes one dataset, either fully in memory, streamed or incrementally, writing rows to sink
+    static void processFile(File file, SalesOptions options, ReportSink sink) throws IOException {
+        if (options.incremental) {
+            IncrementalSales.process(file, options, sink);
+            return;
+        }
+        if (options.daily) {
+            processDaily(file, options, sink);
+            return;
+        }
+        RollingAggregate[] aggregates = options.newAggregates();
+        if (options.streaming) {
+            SalesStreamer.process(file, aggregates, sink);
+            return;
+        }
+        processData(ParallelSalesLoader.load(file), aggregates, sink);
+    }
 
-            try {
-                // release_date is column 13 (index 12)
-                Date date = new SimpleDateFormat("yyyy-MM-dd").parse(parts[12].trim());
+    // Method to process the loaded CSV data
+    private static void processData(SalesTable table, RollingAggregate[] aggregates, ReportSink sink)
+            throws IOException {
+        // Sort records by date, then run every metric over the sales column
+        table.sortByDate();
+        table.computeMetrics(aggregates);
+
+        // Write results to the report
+        sink.header(false, aggregates);
+        double[] values = new double[aggregates.length];
+        for (int i = 0; i < table.size(); i++) {
+            for (int k = 0; k < values.length; k++) values[k] = table.metric(k, i);
+            sink.row(null, table.epochDay(i), table.sales(i), values);
+        }
+    }
 
-                // total_sales is column 8 (index 7)
-                double sales = Double.parseDouble(parts[7].trim());
+    // Buckets sales per calendar day (and group) in one parallel scan, then
+    // runs the metrics over each group's days. Memory grows with the span of
+    // days each group covers, not rows, so this mode does not need --stream.
+    private static void processDaily(File file, SalesOptions options, ReportSink sink) throws IOException {
+        int groupColumn = options.groupBy == null ? -1 : findColumn(file, options.groupBy);
+        DailyBuckets buckets = new DailyBuckets(groupColumn);
+        for (DailyBuckets part : ParallelSalesLoader.loadChunks(file,
+                () -> new DailyBuckets(groupColumn), (csv, b) -> b.readRecord(csv))) {
+            buckets.addAll(part);
+        }
 
-                // Add record to list
-                records.add(new DataRecord(date, sales));
-            } catch (Exception e) {
-                // Skip invalid rows silently
-                continue;
+        boolean grouped = groupColumn >= 0;
+        sink.header(grouped, options.newAggregates());
+        try {
+            for (int g = 0; g < buckets.groupCount(); g++) {
+                String group = grouped ? buckets.groupName(g) : null;
+                buckets.forEachDay(g, options.newAggregates(), (day, sales, rows, values) -> {
+                    try {
+                        sink.row(group, day, sales, values);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
             }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
+    }
 
-        // Sort records by date
-        records.sort(Comparator.comparing(DataRecord::getDate));
-
-        // Calculate 3-day moving average
-        for (int i = 0; i < records.size(); i++) {
-            if (i < 2) {
-                records.get(i).setMovingAvg(null);
-            } else {
-                double avg = (records.get(i).getSales() +
-                              records.get(i-1).getSales() +
-                              records.get(i-2).getSales()) / 3;
-                records.get(i).setMovingAvg(avg);
+    // Index of a column given by header name or by 0-based number
+    static int findColumn(File file, String column) throws IOException {
+        try (CsvTokenizer csv = new CsvTokenizer(new FileInputStream(file))) {
+            if (csv.next()) {
+                for (int i = 0; i < csv.fieldCount(); i++) {
+                    if (csv.getString(i).trim().equalsIgnoreCase(column)) return i;
+                }
             }
         }
+        try {
+            return Integer.parseInt(column);
+        } catch (NumberFormatException e) {
+            throw new IOException("No column named " + column);
+        }
+    }
+
+    // Parses the current CSV record into the table, false for rows that are skipped
+    static boolean readRecord(CsvTokenizer csv, SalesTable table) {
+        // Ensure enough columns exist
+        if (csv.fieldCount() < 13) return false;
+
+        try {
+            // release_date is column 13 (index 12)
+            int epochDay = csv.parseEpochDay(12);
 
-        // Print results in a formatted table
-        System.out.printf("%-12s | %-10s | %-15s%n", "Date", "Sales", "3-Day Moving Avg");
-        SimpleDateFormat fmt = new SimpleDateFormat("yyyy-MM-dd");
+            // total_sales is column 8 (index 7)
+            double sales = csv.parseDouble(7);
 
-        for (DataRecord r : records) {
-            String avg = (r.getMovingAvg() == null) ? "-" : String.format("%.2f", r.getMovingAvg());
-            System.out.printf("%-12s | %-10.2f | %-15s%n",
-                              fmt.format(r.getDate()), r.getSales(), avg);
+            table.add(epochDay, sales);
+            return true;
+        } catch (IllegalArgumentException e) {
+            // Skip invalid rows silently
+            return false;
         }
     }
 }
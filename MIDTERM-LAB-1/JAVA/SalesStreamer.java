@@ -0,0 +1,182 @@
+import java.io.*;
+import java.util.*;
+
+// Constant-memory version of SalesProcessor.processData.
+// Date-ordered input goes straight through the rolling aggregates, which
+// only keep their windows. Unordered input is first sorted with an external
+// merge sort that spills sorted runs to temp files, so heap use does not grow
+// with the file.
+class SalesStreamer {
+    static final int RUN_SIZE = 1 << 18;  // records held in memory per sorted run
+    static final int MAX_FAN_IN = 64;     // runs merged at once
+
+    static void process(File file, RollingAggregate[] aggregates, ReportSink sink) throws IOException {
+        sink.header(false, aggregates);
+        double[] values = new double[aggregates.length]; // reused for every row
+        if (isDateOrdered(file)) {
+            try (CsvTokenizer csv = new CsvTokenizer(new FileInputStream(file))) {
+                csv.next(); // Skip header row
+                SalesTable row = new SalesTable(1); // reused for every record
+                while (csv.next()) {
+                    if (!SalesProcessor.readRecord(csv, row)) continue;
+                    emit(sink, aggregates, values, row.epochDay(0), row.sales(0));
+                    row.clear();
+                }
+            }
+            return;
+        }
+
+        List<File> runs = spillSortedRuns(file);
+        try {
+            while (runs.size() > MAX_FAN_IN) runs = mergePass(runs);
+            try (RunMerger merger = new RunMerger(runs)) {
+                while (merger.next()) emit(sink, aggregates, values, merger.epochDay, merger.sales);
+            }
+        } finally {
+            for (File run : runs) run.delete();
+        }
+    }
+
+    // Pushes one record through every aggregate and writes its row
+    private static void emit(ReportSink sink, RollingAggregate[] aggregates, double[] values,
+                             int epochDay, double sales) throws IOException {
+        for (int k = 0; k < aggregates.length; k++) values[k] = aggregates[k].push(sales);
+        sink.row(null, epochDay, sales, values);
+    }
+
+    // Cheap first pass: true when every valid row is on or after the previous one
+    static boolean isDateOrdered(File file) throws IOException {
+        try (CsvTokenizer csv = new CsvTokenizer(new FileInputStream(file))) {
+            csv.next(); // Skip header row
+            int last = Integer.MIN_VALUE;
+            SalesTable row = new SalesTable(1);
+            while (csv.next()) {
+                if (!SalesProcessor.readRecord(csv, row)) continue;
+                if (row.epochDay(0) < last) return false;
+                last = row.epochDay(0);
+                row.clear();
+            }
+        }
+        return true;
+    }
+
+    // Reads the file in RUN_SIZE chunks, sorts each chunk and writes it to a temp file
+    private static List<File> spillSortedRuns(File file) throws IOException {
+        List<File> runs = new ArrayList<>();
+        SalesTable chunk = new SalesTable(RUN_SIZE);
+        try (CsvTokenizer csv = new CsvTokenizer(new FileInputStream(file))) {
+            csv.next(); // Skip header row
+            while (csv.next()) {
+                if (!SalesProcessor.readRecord(csv, chunk)) continue;
+                if (chunk.size() == RUN_SIZE) {
+                    runs.add(writeRun(chunk));
+                    chunk.clear();
+                }
+            }
+            if (chunk.size() > 0) runs.add(writeRun(chunk));
+        } catch (IOException e) {
+            for (File run : runs) run.delete();
+            throw e;
+        }
+        return runs;
+    }
+
+    // Sorts one chunk by date (stable, like processData) and spills it
+    private static File writeRun(SalesTable chunk) throws IOException {
+        chunk.sortByDate();
+        File run = newRunFile();
+        try (DataOutputStream out = openRun(run)) {
+            for (int i = 0; i < chunk.size(); i++) {
+                out.writeInt(chunk.epochDay(i));
+                out.writeDouble(chunk.sales(i));
+            }
+        }
+        return run;
+    }
+
+    // Merges groups of MAX_FAN_IN runs into bigger runs, so we never open too many files
+    private static List<File> mergePass(List<File> runs) throws IOException {
+        List<File> merged = new ArrayList<>();
+        for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+            List<File> group = runs.subList(i, Math.min(i + MAX_FAN_IN, runs.size()));
+            File run = newRunFile();
+            try (RunMerger merger = new RunMerger(group);
+                 DataOutputStream out = openRun(run)) {
+                while (merger.next()) {
+                    out.writeInt(merger.epochDay);
+                    out.writeDouble(merger.sales);
+                }
+            }
+            for (File f : group) f.delete();
+            merged.add(run);
+        }
+        return merged;
+    }
+
+    private static File newRunFile() throws IOException {
+        File run = File.createTempFile("sales-run", ".bin");
+        run.deleteOnExit();
+        return run;
+    }
+
+    private static DataOutputStream openRun(File run) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), 1 << 16));
+    }
+
+    // K-way merge over spilled runs. Ties go to the earlier run, which keeps the sort stable.
+    private static class RunMerger implements Closeable {
+        private final DataInputStream[] inputs;
+        private final int[] headDay;
+        private final double[] headSales;
+        private final PriorityQueue<Integer> heap;
+
+        int epochDay;  // current record, valid after next() returns true
+        double sales;
+
+        RunMerger(List<File> runs) throws IOException {
+            inputs = new DataInputStream[runs.size()];
+            headDay = new int[runs.size()];
+            headSales = new double[runs.size()];
+            heap = new PriorityQueue<>(Math.max(1, runs.size()), (a, b) -> {
+                int c = Integer.compare(headDay[a], headDay[b]);
+                return c != 0 ? c : Integer.compare(a, b);
+            });
+            try {
+                for (int i = 0; i < inputs.length; i++) {
+                    inputs[i] = new DataInputStream(new BufferedInputStream(new FileInputStream(runs.get(i)), 1 << 16));
+                    if (advance(i)) heap.add(i);
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        boolean next() throws IOException {
+            Integer i = heap.poll();
+            if (i == null) return false;
+            epochDay = headDay[i];
+            sales = headSales[i];
+            if (advance(i)) heap.add(i);
+            return true;
+        }
+
+        // Loads the next record of run i, false when the run is exhausted
+        private boolean advance(int i) throws IOException {
+            try {
+                headDay[i] = inputs[i].readInt();
+                headSales[i] = inputs[i].readDouble();
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (DataInputStream in : inputs) {
+                if (in != null) in.close();
+            }
+        }
+    }
+}
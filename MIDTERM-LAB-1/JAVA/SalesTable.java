@@ -0,0 +1,103 @@
+import java.util.Arrays;
+
+// Column-oriented storage for sales rows: one primitive array per column
+// instead of one object per row (about 20 bytes a row instead of 80+).
+// A NaN metric value means "no value yet".
+class SalesTable {
+    private int[] epochDay;       // Release date as days since 1970-01-01
+    private double[] sales;       // Sales value
+    private double[][] metrics;   // one column per rolling aggregate, filled by computeMetrics
+    private int size;
+
+    SalesTable() {
+        this(1024);
+    }
+
+    SalesTable(int capacity) {
+        epochDay = new int[Math.max(1, capacity)];
+        sales = new double[Math.max(1, capacity)];
+    }
+
+    void add(int day, double value) {
+        if (size == epochDay.length) {
+            int capacity = size + (size >> 1) + 1;
+            epochDay = Arrays.copyOf(epochDay, capacity);
+            sales = Arrays.copyOf(sales, capacity);
+        }
+        epochDay[size] = day;
+        sales[size] = value;
+        size++;
+    }
+
+    // Appends every row of another table (dates and sales only)
+    void addAll(SalesTable other) {
+        int needed = size + other.size;
+        if (needed > epochDay.length) {
+            epochDay = Arrays.copyOf(epochDay, needed);
+            sales = Arrays.copyOf(sales, needed);
+        }
+        System.arraycopy(other.epochDay, 0, epochDay, size, other.size);
+        System.arraycopy(other.sales, 0, sales, size, other.size);
+        size = needed;
+        metrics = null;
+    }
+
+    // Empties the table but keeps its arrays for reuse
+    void clear() {
+        size = 0;
+        metrics = null;
+    }
+
+    int size() { return size; }
+
+    int epochDay(int row) { return epochDay[row]; }
+
+    double sales(int row) { return sales[row]; }
+
+    double metric(int column, int row) { return metrics == null ? Double.NaN : metrics[column][row]; }
+
+    // Sorts rows by date, keeping input order for equal dates.
+    // Each row becomes one long key (day in the high half, row in the low half),
+    // so the sort runs on primitives and the row order falls out of the keys.
+    void sortByDate() {
+        if (isSortedByDate()) return;
+
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) epochDay[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        int[] sortedDays = new int[size];
+        double[] sortedSales = new double[size];
+        for (int i = 0; i < size; i++) {
+            int row = (int) keys[i];
+            sortedDays[i] = epochDay[row];
+            sortedSales[i] = sales[row];
+        }
+        epochDay = sortedDays;
+        sales = sortedSales;
+        metrics = null;
+    }
+
+    boolean isSortedByDate() {
+        for (int i = 1; i < size; i++) {
+            if (epochDay[i] < epochDay[i - 1]) return false;
+        }
+        return true;
+    }
+
+    // Fills one metric column per aggregate, in date order.
+    // Each aggregate is O(1) per row, so the cost does not depend on window sizes.
+    void computeMetrics(RollingAggregate[] aggregates) {
+        metrics = new double[aggregates.length][];
+        for (int k = 0; k < aggregates.length; k++) {
+            double[] column = new double[size];
+            RollingAggregate aggregate = aggregates[k];
+            for (int i = 0; i < size; i++) {
+                column[i] = aggregate.push(sales[i]);
+            }
+            metrics[k] = column;
+        }
+    }
+}
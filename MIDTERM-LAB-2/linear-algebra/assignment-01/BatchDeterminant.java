@@ -0,0 +1,244 @@
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Determinants of many small matrices at once, e.g. millions of 3x3 or 4x4
+ * orientation tests. The K matrices are packed one after another in a single
+ * array (matrix k, entry (i, j) at k*n*n + i*n + j), and determinant k is
+ * written to out[k]. There is nothing to print and no allocation per matrix:
+ *   - n <= 4 uses unrolled closed-form kernels.
+ *   - Larger n eliminates in place in one scratch buffer per task.
+ * The batch is split across the common ForkJoinPool.
+ */
+class BatchDeterminant {
+
+    static final int GRAIN = 1 << 12;  // matrices per task, at least
+
+    // Largest |entry| for which the int kernels cannot overflow long
+    // (3x3: 6 terms of 3 factors, 4x4: 24 terms of 4 factors)
+    static final long INT3_LIMIT = 1 << 20;
+    static final long INT4_LIMIT = 1 << 14;
+
+    // det of each n x n matrix in packed; out.length is the batch size K
+    static void determinants(double[] packed, int n, double[] out) {
+        checkSize(packed.length, n, out.length);
+        determinants(packed, n, out, out.length);
+    }
+
+    // Same for the first count matrices only, so callers can reuse larger buffers
+    static void determinants(double[] packed, int n, double[] out, int count) {
+        if (n < 0 || count > out.length || (long) count * n * n > packed.length) {
+            throw new IllegalArgumentException(count + " matrices of " + n + "x" + n + " do not fit the arrays");
+        }
+        run(new Range(count, (from, to) -> {
+            double[] scratch = n > 4 ? new double[n * n] : null; // one per task, not per matrix
+            for (int k = from; k < to; k++) out[k] = determinant(packed, k * n * n, n, scratch);
+        }));
+    }
+
+    // Exact det of each n x n integer matrix. The closed-form kernels are used
+    // when every |entry| is within INT3_LIMIT / INT4_LIMIT, otherwise checked
+    // long Bareiss elimination, and BigInteger for the rare matrix whose
+    // intermediates overflow even that. Throws ArithmeticException only when a
+    // determinant itself does not fit in a long.
+    static void determinants(int[] packed, int n, long[] out) {
+        checkSize(packed.length, n, out.length);
+        boolean closedForm = n <= 2
+            || n == 3 && maxAbs(packed) <= INT3_LIMIT
+            || n == 4 && maxAbs(packed) <= INT4_LIMIT;
+        run(new Range(out.length, (from, to) -> {
+            long[] scratch = closedForm ? null : new long[n * n];
+            for (int k = from; k < to; k++) {
+                out[k] = closedForm ? determinant(packed, k * n * n, n, scratch)
+                                    : exactDeterminant(packed, k * n * n, n, scratch);
+            }
+        }));
+    }
+
+    // ── Double kernels ──────────────────────────────────────────────────
+    static double determinant(double[] m, int o, int n, double[] scratch) {
+        switch (n) {
+            case 0: return 1;
+            case 1: return m[o];
+            case 2: return m[o] * m[o + 3] - m[o + 1] * m[o + 2];
+            case 3: return det3(m, o);
+            case 4: return det4(m, o);
+            default: return luDeterminant(m, o, n, scratch);
+        }
+    }
+
+    // Cofactor expansion along the first row
+    static double det3(double[] m, int o) {
+        double a = m[o],     b = m[o + 1], c = m[o + 2];
+        double d = m[o + 3], e = m[o + 4], f = m[o + 5];
+        double g = m[o + 6], h = m[o + 7], i = m[o + 8];
+        return a * (e * i - f * h) - b * (d * i - f * g) + c * (d * h - e * g);
+    }
+
+    // Laplace expansion by the 2x2 minors of the top two rows and their complementary bottom minors
+    static double det4(double[] m, int o) {
+        double a = m[o],      b = m[o + 1],  c = m[o + 2],  d = m[o + 3];
+        double e = m[o + 4],  f = m[o + 5],  g = m[o + 6],  h = m[o + 7];
+        double i = m[o + 8],  j = m[o + 9],  k = m[o + 10], l = m[o + 11];
+        double p = m[o + 12], q = m[o + 13], r = m[o + 14], s = m[o + 15];
+        double s0 = a * f - e * b, s1 = a * g - e * c, s2 = a * h - e * d;
+        double s3 = b * g - f * c, s4 = b * h - f * d, s5 = c * h - g * d;
+        double c5 = k * s - r * l, c4 = j * s - q * l, c3 = j * r - q * k;
+        double c2 = i * s - p * l, c1 = i * r - p * k, c0 = i * q - p * j;
+        return s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+    }
+
+    // Partial-pivot elimination on a copy in scratch
+    private static double luDeterminant(double[] m, int o, int n, double[] a) {
+        System.arraycopy(m, o, a, 0, n * n);
+        double det = 1;
+        for (int k = 0; k < n; k++) {
+            int p = k;
+            for (int i = k + 1; i < n; i++) {
+                if (Math.abs(a[i * n + k]) > Math.abs(a[p * n + k])) p = i;
+            }
+            double diag = a[p * n + k];
+            if (diag == 0) return 0;
+            if (p != k) {
+                for (int j = k; j < n; j++) {
+                    double t = a[p * n + j];
+                    a[p * n + j] = a[k * n + j];
+                    a[k * n + j] = t;
+                }
+                det = -det;
+            }
+            det *= diag;
+            for (int i = k + 1; i < n; i++) {
+                double factor = a[i * n + k] / diag;
+                if (factor == 0) continue;
+                for (int j = k + 1; j < n; j++) a[i * n + j] -= factor * a[k * n + j];
+            }
+        }
+        return det;
+    }
+
+    // ── Integer kernels ─────────────────────────────────────────────────
+    static long determinant(int[] m, int o, int n, long[] scratch) {
+        switch (n) {
+            case 0: return 1;
+            case 1: return m[o];
+            case 2: return (long) m[o] * m[o + 3] - (long) m[o + 1] * m[o + 2];
+            case 3: return det3(m, o);
+            case 4: return det4(m, o);
+            default: return exactDeterminant(m, o, n, scratch);
+        }
+    }
+
+    static long det3(int[] m, int o) {
+        long a = m[o],     b = m[o + 1], c = m[o + 2];
+        long d = m[o + 3], e = m[o + 4], f = m[o + 5];
+        long g = m[o + 6], h = m[o + 7], i = m[o + 8];
+        return a * (e * i - f * h) - b * (d * i - f * g) + c * (d * h - e * g);
+    }
+
+    static long det4(int[] m, int o) {
+        long a = m[o],      b = m[o + 1],  c = m[o + 2],  d = m[o + 3];
+        long e = m[o + 4],  f = m[o + 5],  g = m[o + 6],  h = m[o + 7];
+        long i = m[o + 8],  j = m[o + 9],  k = m[o + 10], l = m[o + 11];
+        long p = m[o + 12], q = m[o + 13], r = m[o + 14], s = m[o + 15];
+        long s0 = a * f - e * b, s1 = a * g - e * c, s2 = a * h - e * d;
+        long s3 = b * g - f * c, s4 = b * h - f * d, s5 = c * h - g * d;
+        long c5 = k * s - r * l, c4 = j * s - q * l, c3 = j * r - q * k;
+        long c2 = i * s - p * l, c1 = i * r - p * k, c0 = i * q - p * j;
+        return s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+    }
+
+    private static long exactDeterminant(int[] m, int o, int n, long[] scratch) {
+        try {
+            return bareiss(m, o, n, scratch);
+        } catch (ArithmeticException e) {
+            long[][] matrix = new long[n][n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) matrix[i][j] = m[o + i * n + j];
+            }
+            BigInteger det = DeterminantSolver.determinantExact(matrix);
+            if (det.bitLength() > 63) {
+                throw new ArithmeticException("Determinant of matrix " + o / (n * n) + " does not fit in a long: " + det);
+            }
+            return det.longValue();
+        }
+    }
+
+    // Fraction-free elimination (see DeterminantSolver.determinantExact) with overflow checks
+    private static long bareiss(int[] m, int o, int n, long[] a) {
+        for (int i = 0; i < n * n; i++) a[i] = m[o + i];
+        long sign = 1, previous = 1;
+        for (int k = 0; k < n - 1; k++) {
+            if (a[k * n + k] == 0) {
+                int p = k + 1;
+                while (p < n && a[p * n + k] == 0) p++;
+                if (p == n) return 0;
+                for (int j = k; j < n; j++) {
+                    long t = a[p * n + j];
+                    a[p * n + j] = a[k * n + j];
+                    a[k * n + j] = t;
+                }
+                sign = -sign;
+            }
+            long diag = a[k * n + k];
+            for (int i = k + 1; i < n; i++) {
+                for (int j = k + 1; j < n; j++) {
+                    a[i * n + j] = Math.subtractExact(Math.multiplyExact(a[i * n + j], diag),
+                                                      Math.multiplyExact(a[i * n + k], a[k * n + j])) / previous;
+                }
+            }
+            previous = diag;
+        }
+        return sign * a[n * n - 1];
+    }
+
+    // ── Batch plumbing ──────────────────────────────────────────────────
+    private static void checkSize(int packedLength, int n, int count) {
+        if (n < 0 || (long) count * n * n != packedLength) {
+            throw new IllegalArgumentException("Packed array holds " + packedLength + " values, expected "
+                                               + count + " matrices of " + n + "x" + n);
+        }
+    }
+
+    private static long maxAbs(int[] values) {
+        long largest = 0;
+        for (int v : values) largest = Math.max(largest, Math.abs((long) v));
+        return largest;
+    }
+
+    private static void run(Range range) {
+        if (range.to - range.from <= GRAIN) range.compute();
+        else ForkJoinPool.commonPool().invoke(range);
+    }
+
+    interface Kernel {
+        void apply(int from, int to);
+    }
+
+    // Splits [from, to) in half until chunks reach GRAIN matrices
+    private static class Range extends RecursiveAction {
+        private final int from, to;
+        private final Kernel kernel;
+
+        Range(int count, Kernel kernel) {
+            this(0, count, kernel);
+        }
+
+        private Range(int from, int to, Kernel kernel) {
+            this.from = from;
+            this.to = to;
+            this.kernel = kernel;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GRAIN) {
+                kernel.apply(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Range(from, mid, kernel), new Range(mid, to, kernel));
+        }
+    }
+}
@@ -1,3 +1,8 @@
+import java.io.*;
+import java.math.BigInteger;
+import java.nio.file.*;
+import java.util.Random;
+
 /**
  * =====================================================
  * Student Name    : Kristine O. Bermudo
@@ -12,6 +17,23 @@
  *   to Kristine O. Bermudo for Math 101. The solution is computed using cofactor
  *   expansion along the first row. Each intermediate step (2x2 minor,
  *   cofactor term, running sum) is printed to the console in a readable format.
+ *
+ *   Larger matrices use O(n^3) methods instead of cofactor expansion, which
+ *   grows as O(n!): LU decomposition with partial pivoting for double values
+ *   (see LuFactorization) and Bareiss fraction-free elimination for an exact
+ *   integer result.
+ *
+ * Usage:
+ *   java DeterminantSolver              step-by-step solution of the assigned matrix
+ *   java DeterminantSolver N [seed]     determinant of a random N x N matrix
+ *       [--max R]                       entries from -R to R (default 9)
+ *       [--mode auto|long|big|double]   arithmetic, see Mode
+ *   java DeterminantSolver --solve N [K]  K right-hand sides and the inverse from one LU
+ *   java DeterminantSolver --bench N    LU speed in GFLOP/s: unblocked, blocked, blocked + parallel
+ *   java DeterminantSolver --batch K N  K packed N x N determinants vs one solver call each
+ *   java DeterminantSolver --file F     stream every matrix in a text or binary file (see MatrixFiles)
+ *   java DeterminantSolver --to-binary IN OUT         convert a text matrix file to binary
+ *   java DeterminantSolver --generate OUT K N [seed]  write K random N x N matrices in binary
  * =====================================================
  */
 public class DeterminantSolver {
@@ -25,11 +47,23 @@ public class DeterminantSolver {
         { 6, 1, 3 }    // Row 3 of assigned matrix
     };
 
-    // ── SECTION 2: 2x2 Determinant Helper ───────────────────────────────
+    // ── SECTION 2: 2x2 Determinant Helpers ──────────────────────────────
+    // Plain int: only exact while |a*d - b*c| fits, see fitsInInt
     static int computeMinor(int a, int b, int c, int d) {
         return (a * d) - (b * c);
     }
 
+    // Checked long: throws ArithmeticException instead of silently wrapping
+    static long computeMinorExact(long a, long b, long c, long d) {
+        return Math.subtractExact(Math.multiplyExact(a, d), Math.multiplyExact(b, c));
+    }
+
+    // BigInteger: always exact
+    static BigInteger computeMinorBig(long a, long b, long c, long d) {
+        return BigInteger.valueOf(a).multiply(BigInteger.valueOf(d))
+                .subtract(BigInteger.valueOf(b).multiply(BigInteger.valueOf(c)));
+    }
+
     // ── SECTION 3: Output Helpers ───────────────────────────────────────
     static void printSeparator() {
         for (int i = 0; i < 52; i++) {
@@ -39,15 +73,29 @@ public class DeterminantSolver {
     }
 
     static void printMatrix(int[][] m) {
-        System.out.println("+-----------------+");
+        String border = "+" + "-".repeat(4 * m.length + 5) + "+";
+        System.out.println(border);
         for (int[] row : m) {
-            System.out.printf("|  %2d  %2d  %2d  |%n", row[0], row[1], row[2]);
+            System.out.print("|");
+            for (int value : row) {
+                System.out.printf("  %2d", value);
+            }
+            System.out.println("  |");
         }
-        System.out.println("+-----------------+");
+        System.out.println(border);
     }
 
     // ── SECTION 4: Step-by-Step Determinant Solver ──────────────────────
+    // The step-by-step trace is for 3x3 input; other sizes go to solveGeneral.
     static void solveDeterminant(int[][] m) {
+        solveDeterminant(m, Mode.AUTO);
+    }
+
+    static void solveDeterminant(int[][] m, Mode mode) {
+        if (m.length != 3 || mode != Mode.AUTO) {
+            solveGeneral(m, mode);
+            return;
+        }
         printSeparator();
         System.out.println("  3x3 MATRIX DETERMINANT SOLVER");
         System.out.println("  Student: Kristine O. Bermudo");
@@ -56,43 +104,566 @@ public class DeterminantSolver {
         printMatrix(m);
         printSeparator();
 
-        int minor11 = computeMinor(m[1][1], m[1][2], m[2][1], m[2][2]);
+        // int arithmetic when the entries are small enough to prove it cannot
+        // overflow, BigInteger otherwise (the printed steps are the same)
+        boolean small = fitsInInt(m);
+
+        BigInteger minor11 = minor(small, m[1][1], m[1][2], m[2][1], m[2][2]);
         System.out.printf("  Step 1 - Minor M11: det([%d,%d],[%d,%d]) = (%d*%d)-(%d*%d) = %d%n",
             m[1][1], m[1][2], m[2][1], m[2][2],
             m[1][1], m[2][2], m[1][2], m[2][1], minor11);
 
-        int minor12 = computeMinor(m[1][0], m[1][2], m[2][0], m[2][2]);
+        BigInteger minor12 = minor(small, m[1][0], m[1][2], m[2][0], m[2][2]);
         System.out.printf("  Step 2 - Minor M12: det([%d,%d],[%d,%d]) = (%d*%d)-(%d*%d) = %d%n",
             m[1][0], m[1][2], m[2][0], m[2][2],
             m[1][0], m[2][2], m[1][2], m[2][0], minor12);
 
-        int minor13 = computeMinor(m[1][0], m[1][1], m[2][0], m[2][1]);
+        BigInteger minor13 = minor(small, m[1][0], m[1][1], m[2][0], m[2][1]);
         System.out.printf("  Step 3 - Minor M13: det([%d,%d],[%d,%d]) = (%d*%d)-(%d*%d) = %d%n",
             m[1][0], m[1][1], m[2][0], m[2][1],
             m[1][0], m[2][1], m[1][1], m[2][0], minor13);
 
-        int c11 =  m[0][0] * minor11;
-        int c12 = -m[0][1] * minor12;
-        int c13 =  m[0][2] * minor13;
+        BigInteger c11 = BigInteger.valueOf(m[0][0]).multiply(minor11);
+        BigInteger c12 = BigInteger.valueOf(m[0][1]).multiply(minor12).negate();
+        BigInteger c13 = BigInteger.valueOf(m[0][2]).multiply(minor13);
 
         System.out.println();
         System.out.printf("  Cofactor C11 = (+1) * %d * %d = %d%n", m[0][0], minor11, c11);
         System.out.printf("  Cofactor C12 = (-1) * %d * %d = %d%n", m[0][1], minor12, c12);
         System.out.printf("  Cofactor C13 = (+1) * %d * %d = %d%n", m[0][2], minor13, c13);
 
-        int det = c11 + c12 + c13;
+        BigInteger det = c11.add(c12).add(c13);
         System.out.printf("%n  det(M) = %d + (%d) + %d%n", c11, c12, c13);
         printSeparator();
         System.out.printf("  DETERMINANT = %d%n", det);
 
-        if (det == 0) {
+        if (det.signum() == 0) {
+            System.out.println("  WARNING: The matrix is SINGULAR - it has no inverse.");
+            System.out.printf("  Rank: %d of 3%n", new LuFactorization(toDouble(m)).rank());
+        }
+        printSeparator();
+    }
+
+    private static BigInteger minor(boolean small, int a, int b, int c, int d) {
+        return small ? BigInteger.valueOf(computeMinor(a, b, c, d)) : computeMinorBig(a, b, c, d);
+    }
+
+    // ── SECTION 5: N x N Solver ─────────────────────────────────────────
+    // Largest size solveGeneral runs Bareiss on: its cost grows with n^3
+    // and with the digit count of the entries, which grows with n
+    static final int EXACT_LIMIT = 250;
+
+    // Prints the LU (double) determinant with its error estimate and, unless
+    // mode is DOUBLE, the exact determinant in the chosen integer mode.
+    static void solveGeneral(int[][] m, Mode mode) {
+        int n = m.length;
+        printSeparator();
+        System.out.printf("  %dx%d MATRIX DETERMINANT SOLVER%n", n, n);
+        printSeparator();
+        if (n <= 12) {
+            printMatrix(m);
+            printSeparator();
+        }
+
+        long start = System.nanoTime();
+        LuFactorization lu = new LuFactorization(toDouble(m));
+        double millis = (System.nanoTime() - start) / 1e6;
+        System.out.printf("  LU (partial pivoting):  det = %s   (%.1f ms)%n", formatLarge(lu), millis);
+        System.out.printf("                          condition ~ %.2e, relative error ~ %.1e%n",
+            lu.conditionEstimate(), lu.determinantErrorEstimate());
+        if (lu.rank() < n) {
+            System.out.printf("  Rank (numerical):       %d of %d%n", lu.rank(), n);
+        }
+        if (mode == Mode.DOUBLE) {
+            printSeparator();
+            return;
+        }
+        if (n > EXACT_LIMIT) {
+            System.out.printf("  Bareiss (exact):        skipped above %d rows%n", EXACT_LIMIT);
+            printSeparator();
+            return;
+        }
+
+        long[][] wide = toLong(m);
+        Mode used = mode == Mode.AUTO ? chooseMode(wide) : mode;
+        start = System.nanoTime();
+        BigInteger exact;
+        try {
+            exact = determinant(wide, used);
+        } catch (ArithmeticException e) {
+            System.out.println("  Exact (LONG):           overflowed a long, use --mode big");
+            printSeparator();
+            return;
+        }
+        millis = (System.nanoTime() - start) / 1e6;
+        String digits = exact.toString();
+        if (digits.length() > 60) {
+            digits = digits.substring(0, 30) + "..." + digits.substring(digits.length() - 10)
+                   + " (" + exact.abs().toString().length() + " digits)";
+        }
+        System.out.printf("  %-23s det = %s   (%.1f ms)%n", "Exact (" + used + "):", digits, millis);
+        printSeparator();
+        if (exact.signum() == 0) {
             System.out.println("  WARNING: The matrix is SINGULAR - it has no inverse.");
+            printSeparator();
+        }
+    }
+
+    // d.dddddd x 10^e, worked out from log|det| so values beyond double range still print
+    static String formatLarge(LuFactorization lu) {
+        if (lu.signum() == 0) return "0";
+        double log10 = lu.logAbsDeterminant() / Math.log(10);
+        long exponent = (long) Math.floor(log10);
+        double mantissa = Math.pow(10, log10 - exponent);
+        if (mantissa >= 9.9999995) {  // would print as 10.000000
+            mantissa /= 10;
+            exponent++;
+        }
+        return String.format("%s%.6fe%+d", lu.signum() < 0 ? "-" : "", mantissa, exponent);
+    }
+
+    // ── SECTION 6: Numeric Modes ────────────────────────────────────────
+    // AUTO   picks LONG when the entry magnitudes prove it cannot overflow, else BIG
+    // LONG   checked long arithmetic (Math.multiplyExact), throws ArithmeticException on overflow
+    // BIG    BigInteger, always exact, slowest
+    // DOUBLE LU in floating point, with a condition number and error estimate
+    enum Mode { AUTO, LONG, BIG, DOUBLE }
+
+    // True when the 3x3 cofactor expansion stays within int: every minor,
+    // cofactor and sum is bounded by 6 * max|entry|^3
+    static boolean fitsInInt(int[][] m) {
+        long largest = 0;
+        for (int[] row : m) {
+            for (int v : row) largest = Math.max(largest, Math.abs((long) v));
+        }
+        return m.length == 3 && largest <= 1 << 11 && 6 * largest * largest * largest <= Integer.MAX_VALUE;
+    }
+
+    // LONG when overflow is impossible, BIG otherwise.
+    // n <= 3 (cofactor expansion): every intermediate is at most n! * max|entry|^n.
+    // Larger n (Bareiss): every intermediate is a minor, at most the Hadamard
+    // bound H = product of the row lengths, and one step forms a*b - c*d, at most 2H^2.
+    static Mode chooseMode(long[][] m) {
+        int n = m.length;
+        double log2Bound = 0;
+        if (n <= 3) {
+            double largest = 0;
+            for (long[] row : m) {
+                for (long v : row) largest = Math.max(largest, Math.abs((double) v));
+            }
+            double factorial = n == 3 ? 6 : n == 2 ? 2 : 1;
+            log2Bound = log2(factorial) + n * log2(Math.max(1, largest));
+        } else {
+            for (long[] row : m) {
+                double squares = 0;
+                for (long v : row) squares += (double) v * v;
+                log2Bound += log2(Math.max(1, Math.sqrt(squares)));
+            }
+            log2Bound = 2 * log2Bound + 1;
+        }
+        return log2Bound < 62 ? Mode.LONG : Mode.BIG;  // a bit of slack for rounding in the bound itself
+    }
+
+    private static double log2(double x) {
+        return Math.log(x) / Math.log(2);
+    }
+
+    // Exact determinant in the given mode (DOUBLE is not exact, use determinant(double[][]))
+    static BigInteger determinant(long[][] m, Mode mode) {
+        switch (mode) {
+            case AUTO: return determinant(m, chooseMode(m));
+            case LONG: return BigInteger.valueOf(determinantLong(m));
+            case BIG: return determinantExact(m);
+            default: throw new IllegalArgumentException("Mode " + mode + " has no exact result");
+        }
+    }
+
+    // Checked long arithmetic: cofactor expansion up to 3x3, Bareiss above
+    static long determinantLong(long[][] m) {
+        int n = m.length;
+        for (long[] row : m) {
+            if (row.length != n) throw new IllegalArgumentException("Matrix is not square");
+        }
+        switch (n) {
+            case 0: return 1;
+            case 1: return m[0][0];
+            case 2: return computeMinorExact(m[0][0], m[0][1], m[1][0], m[1][1]);
+            case 3:
+                long c11 = Math.multiplyExact(m[0][0], computeMinorExact(m[1][1], m[1][2], m[2][1], m[2][2]));
+                long c12 = Math.multiplyExact(m[0][1], computeMinorExact(m[1][0], m[1][2], m[2][0], m[2][2]));
+                long c13 = Math.multiplyExact(m[0][2], computeMinorExact(m[1][0], m[1][1], m[2][0], m[2][1]));
+                return Math.addExact(Math.subtractExact(c11, c12), c13);
+            default:
+                break;
+        }
+        long[][] a = new long[n][];
+        for (int i = 0; i < n; i++) a[i] = m[i].clone();
+        long sign = 1, previous = 1;
+        for (int k = 0; k < n - 1; k++) {
+            if (a[k][k] == 0) {
+                int p = k + 1;
+                while (p < n && a[p][k] == 0) p++;
+                if (p == n) return 0;
+                long[] row = a[p];
+                a[p] = a[k];
+                a[k] = row;
+                sign = -sign;
+            }
+            for (int i = k + 1; i < n; i++) {
+                for (int j = k + 1; j < n; j++) {
+                    a[i][j] = computeMinorExact(a[i][j], a[i][k], a[k][j], a[k][k]) / previous;
+                }
+            }
+            previous = a[k][k];
+        }
+        return Math.multiplyExact(sign, a[n - 1][n - 1]);
+    }
+
+    // ── SECTION 7: Determinant by LU Decomposition ──────────────────────
+    // O(n^3) instead of the O(n!) of cofactor expansion. Subject to rounding;
+    // use determinantExact when the entries are integers and the exact value matters.
+    static double determinant(double[][] m) {
+        return new LuFactorization(m).determinant();
+    }
+
+    // ── SECTION 8: Exact Determinant by Bareiss Elimination ─────────────
+    // Fraction-free Gaussian elimination: every division is exact, and each
+    // intermediate entry is itself a minor of the input, so the numbers
+    // stay as small as the determinant allows. O(n^3) BigInteger operations.
+    static BigInteger determinantExact(long[][] m) {
+        int n = m.length;
+        BigInteger[][] a = new BigInteger[n][n];
+        for (int i = 0; i < n; i++) {
+            if (m[i].length != n) throw new IllegalArgumentException("Matrix is not square");
+            for (int j = 0; j < n; j++) {
+                a[i][j] = BigInteger.valueOf(m[i][j]);
+            }
+        }
+        if (n == 0) return BigInteger.ONE;
+
+        int sign = 1;
+        BigInteger previous = BigInteger.ONE;
+        for (int k = 0; k < n - 1; k++) {
+            if (a[k][k].signum() == 0) {
+                int p = k + 1;
+                while (p < n && a[p][k].signum() == 0) p++;
+                if (p == n) return BigInteger.ZERO; // whole column is zero
+                BigInteger[] row = a[p];
+                a[p] = a[k];
+                a[k] = row;
+                sign = -sign;
+            }
+            for (int i = k + 1; i < n; i++) {
+                for (int j = k + 1; j < n; j++) {
+                    a[i][j] = a[i][j].multiply(a[k][k])
+                                     .subtract(a[i][k].multiply(a[k][j]))
+                                     .divide(previous);
+                }
+            }
+            previous = a[k][k];
+        }
+        return sign < 0 ? a[n - 1][n - 1].negate() : a[n - 1][n - 1];
+    }
+
+    static BigInteger determinantExact(int[][] m) {
+        return determinantExact(toLong(m));
+    }
+
+    static long[][] toLong(int[][] m) {
+        long[][] wide = new long[m.length][];
+        for (int i = 0; i < m.length; i++) {
+            wide[i] = new long[m[i].length];
+            for (int j = 0; j < m[i].length; j++) wide[i][j] = m[i][j];
+        }
+        return wide;
+    }
+
+    static double[][] toDouble(int[][] m) {
+        double[][] d = new double[m.length][];
+        for (int i = 0; i < m.length; i++) {
+            d[i] = new double[m[i].length];
+            for (int j = 0; j < m[i].length; j++) d[i][j] = m[i][j];
+        }
+        return d;
+    }
+
+    // Random entries from -9 to 9
+    static int[][] randomMatrix(int n, long seed) {
+        return randomMatrix(n, seed, 9);
+    }
+
+    // Random entries from -max to max
+    static int[][] randomMatrix(int n, long seed, int max) {
+        Random random = new Random(seed);
+        int[][] m = new int[n][n];
+        for (int[] row : m) {
+            for (int j = 0; j < n; j++) {
+                row[j] = max < (1 << 30) ? random.nextInt(2 * max + 1) - max
+                                         : (int) (Math.floorMod(random.nextLong(), 2L * max + 1) - max);
+            }
+        }
+        return m;
+    }
+
+    // ── SECTION 9: LU Benchmark ─────────────────────────────────────────
+    // Times the same factorization three ways. LU takes about 2n^3/3 flops.
+    static void benchmark(int n) {
+        Matrix a = Matrix.random(n, 42);
+        for (int i = 0; i < 3; i++) {                        // let the JIT compile the kernels first
+            Matrix warm = Matrix.random(Math.min(n, 384), i);
+            new LuFactorization(warm, 1, false);
+            new LuFactorization(warm, LuFactorization.BLOCK, false);
+            new LuFactorization(warm, LuFactorization.BLOCK, true);
+        }
+
+        double flops = 2.0 * n * n * n / 3;
+        int threads = java.util.concurrent.ForkJoinPool.getCommonPoolParallelism();
+        printSeparator();
+        System.out.printf("  LU BENCHMARK  n = %d  (%.2f GFLOP per run)%n", n, flops / 1e9);
+        printSeparator();
+        String[] names = { "unblocked, 1 thread", "blocked, 1 thread", "blocked, " + threads + " thread(s)" };
+        int[] blocks = { 1, LuFactorization.BLOCK, LuFactorization.BLOCK };
+        boolean[] parallel = { false, false, true };
+        double baseline = 0, logDet = 0;
+        for (int r = 0; r < names.length; r++) {
+            long start = System.nanoTime();
+            LuFactorization lu = new LuFactorization(a, blocks[r], parallel[r]);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            if (r == 0) {
+                baseline = seconds;
+                logDet = lu.logAbsDeterminant();
+            } else if (Math.abs(lu.logAbsDeterminant() - logDet) > 1e-8 * Math.max(1, Math.abs(logDet))) {
+                System.out.println("  WARNING: results differ between runs");
+            }
+            System.out.printf("  %-24s %8.3f s  %7.2f GFLOP/s  x%.2f%n",
+                names[r], seconds, flops / seconds / 1e9, baseline / seconds);
+        }
+        printSeparator();
+    }
+
+    // ── SECTION 10: Batch Benchmark ──────────────────────────────────────
+    // Compares BatchDeterminant with calling the general solver once per matrix.
+    static void batchBenchmark(int count, int n) {
+        Random random = new Random(42);
+        double[] packed = new double[count * n * n];
+        for (int i = 0; i < packed.length; i++) packed[i] = random.nextInt(19) - 9;
+        int[] packedInt = new int[packed.length];
+        for (int i = 0; i < packed.length; i++) packedInt[i] = (int) packed[i];
+        double[] out = new double[count];
+        long[] exact = new long[count];
+
+        for (int i = 0; i < 3; i++) {                        // warm up the JIT
+            BatchDeterminant.determinants(packed, n, out);
+            BatchDeterminant.determinants(packedInt, n, exact);
+        }
+        long start = System.nanoTime();
+        BatchDeterminant.determinants(packed, n, out);
+        double batchSeconds = (System.nanoTime() - start) / 1e9;
+        start = System.nanoTime();
+        BatchDeterminant.determinants(packedInt, n, exact);
+        double exactSeconds = (System.nanoTime() - start) / 1e9;
+
+        int single = Math.min(count, 200_000);               // the slow path is sampled
+        int mismatches = 0;
+        start = System.nanoTime();
+        for (int k = 0; k < single; k++) {
+            double[][] m = new double[n][n];
+            for (int i = 0; i < n; i++) System.arraycopy(packed, k * n * n + i * n, m[i], 0, n);
+            double det = determinant(m);
+            if (Math.abs(det - exact[k]) > 1e-9 * Math.max(1, Math.abs(det))) mismatches++;
+        }
+        double singleSeconds = (System.nanoTime() - start) / 1e9;
+
+        printSeparator();
+        System.out.printf("  BATCH DETERMINANTS  %,d matrices of %dx%d%n", count, n, n);
+        printSeparator();
+        System.out.printf("  batch, double[]      %8.3f s  %,14.0f matrices/s%n", batchSeconds, count / batchSeconds);
+        System.out.printf("  batch, int[] exact   %8.3f s  %,14.0f matrices/s%n", exactSeconds, count / exactSeconds);
+        System.out.printf("  one call each        %8.3f s  %,14.0f matrices/s  (%,d sampled)%n",
+            singleSeconds, single / singleSeconds, single);
+        if (mismatches > 0) System.out.printf("  WARNING: %d results differ%n", mismatches);
+        printSeparator();
+    }
+
+    // ── SECTION 11: File Solver ─────────────────────────────────────────
+    // Streams matrices from a file and prints "index,n,determinant" per matrix
+    // as it goes. Runs of same-size small matrices are packed and handed to
+    // BatchDeterminant together, so memory stays at one pack whatever the file size.
+    static final int PACK_MAX_N = 32;           // larger matrices are factored one at a time
+    static final int PACK_DOUBLES = 1 << 20;    // 8 MB of entries per pack
+
+    static void solveFile(Path path) throws IOException {
+        long start = System.nanoTime();
+        long count = 0;
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16));
+        try (MatrixFiles.Source source = MatrixFiles.open(path)) {
+            double[] packed = new double[PACK_DOUBLES];
+            double[] results = new double[PACK_DOUBLES];
+            int packN = -1, packCount = 0;
+            while (true) {
+                boolean more = source.next();
+                int n = more ? source.size() : -1;
+                // Flush the pack when the size changes, it is full, or the file ends
+                if (packCount > 0 && (n != packN || (packCount + 1) * n * n > PACK_DOUBLES)) {
+                    BatchDeterminant.determinants(packed, packN, results, packCount);
+                    for (int k = 0; k < packCount; k++) {
+                        out.println((count - packCount + k) + "," + packN + "," + results[k]);
+                    }
+                    packCount = 0;
+                }
+                if (!more) break;
+
+                if (n >= 1 && n <= PACK_MAX_N) {
+                    System.arraycopy(source.data(), 0, packed, packCount * n * n, n * n);
+                    packN = n;
+                    packCount++;
+                } else {
+                    Matrix m = new Matrix(n, n);
+                    System.arraycopy(source.data(), 0, m.data, 0, n * n);
+                    out.println(count + "," + n + "," + new LuFactorization(m).determinant());
+                }
+                count++;
+            }
+        } finally {
+            out.flush();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("%,d matrices in %.2f s (%,.0f per second, %.1f MB/s)%n",
+            count, seconds, count / seconds, Files.size(path) / seconds / 1e6);
+    }
+
+    // Source of count random n x n matrices with integer entries in [-9, 9]
+    static MatrixFiles.Source randomSource(long count, int n, long seed) {
+        Random random = new Random(seed);
+        double[] data = new double[n * n];
+        return new MatrixFiles.Source() {
+            long left = count;
+
+            public boolean next() {
+                if (left-- <= 0) return false;
+                for (int i = 0; i < data.length; i++) data[i] = random.nextInt(19) - 9;
+                return true;
+            }
+
+            public int size() { return n; }
+
+            public double[] data() { return data; }
+
+            public void close() { }
+        };
+    }
+
+    // ── SECTION 12: Linear Systems ──────────────────────────────────────
+    // Solves A X = B for count random right-hand sides from one factorization
+    // and compares that with factoring again for every right-hand side.
+    static void solveSystems(int n, int count) {
+        Matrix a = Matrix.random(n, 42);
+        Matrix b = new Matrix(n, count);
+        Random random = new Random(7);
+        for (int i = 0; i < b.data.length; i++) b.data[i] = random.nextDouble() * 2 - 1;
+
+        printSeparator();
+        System.out.printf("  LINEAR SYSTEMS  n = %d, %d right-hand side(s)%n", n, count);
+        printSeparator();
+        long start = System.nanoTime();
+        LuFactorization lu = new LuFactorization(a);
+        double factorMillis = (System.nanoTime() - start) / 1e6;
+        start = System.nanoTime();
+        Matrix x = lu.solve(b);
+        double solveMillis = (System.nanoTime() - start) / 1e6;
+        System.out.printf("  Factor once:            %10.1f ms%n", factorMillis);
+        System.out.printf("  Solve all columns:      %10.1f ms  (%.3f ms each)%n", solveMillis, solveMillis / count);
+
+        // Refactoring per right-hand side: time a few and scale up
+        int sample = Math.min(count, 5);
+        start = System.nanoTime();
+        for (int c = 0; c < sample; c++) {
+            double[] column = new double[n];
+            for (int i = 0; i < n; i++) column[i] = b.get(i, c);
+            new LuFactorization(a).solve(column);
+        }
+        double refactorMillis = (System.nanoTime() - start) / 1e6 / sample * count;
+        System.out.printf("  Refactor per column:    %10.1f ms  (x%.1f slower)%n",
+            refactorMillis, refactorMillis / (factorMillis + solveMillis));
+
+        double residual = 0;
+        for (int i = 0; i < n; i++) {
+            for (int c = 0; c < count; c++) {
+                double sum = -b.get(i, c);
+                for (int k = 0; k < n; k++) sum += a.get(i, k) * x.get(k, c);
+                residual = Math.max(residual, Math.abs(sum));
+            }
+        }
+        System.out.printf("  max |A x - b|:          %10.1e%n", residual);
+
+        start = System.nanoTime();
+        Matrix inverse = lu.inverse();
+        double inverseMillis = (System.nanoTime() - start) / 1e6;
+        double error = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double sum = i == j ? -1 : 0;
+                for (int k = 0; k < n; k++) sum += a.get(i, k) * inverse.get(k, j);
+                error = Math.max(error, Math.abs(sum));
+            }
         }
+        System.out.printf("  Inverse:                %10.1f ms  max |A A^-1 - I| = %.1e%n", inverseMillis, error);
+        System.out.printf("  Rank:                   %10d of %d%n", lu.rank(), n);
         printSeparator();
     }
 
-    // ── SECTION 5: Entry Point ───────────────────────────────────────────
-    public static void main(String[] args) {
-        solveDeterminant(matrix);
+    // ── SECTION 13: Entry Point ──────────────────────────────────────────
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            solveDeterminant(matrix);
+            return;
+        }
+        if (args[0].equals("--file") && args.length > 1) {
+            solveFile(Paths.get(args[1]));
+            return;
+        }
+        if (args[0].equals("--to-binary") && args.length > 2) {
+            try (MatrixFiles.Source source = MatrixFiles.open(Paths.get(args[1]))) {
+                long count = MatrixFiles.writeBinary(source, Paths.get(args[2]));
+                System.out.printf("Wrote %,d matrices to %s%n", count, args[2]);
+            }
+            return;
+        }
+        if (args[0].equals("--generate") && args.length > 3) {
+            long count = Long.parseLong(args[2]);
+            int n = Integer.parseInt(args[3]);
+            long seed = args.length > 4 ? Long.parseLong(args[4]) : 42;
+            MatrixFiles.writeBinary(randomSource(count, n, seed), Paths.get(args[1]));
+            System.out.printf("Wrote %,d random %dx%d matrices to %s%n", count, n, n, args[1]);
+            return;
+        }
+        if (args[0].equals("--batch")) {
+            batchBenchmark(args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000,
+                           args.length > 2 ? Integer.parseInt(args[2]) : 3);
+            return;
+        }
+        if (args[0].equals("--solve")) {
+            solveSystems(args.length > 1 ? Integer.parseInt(args[1]) : 1000,
+                         args.length > 2 ? Integer.parseInt(args[2]) : 100);
+            return;
+        }
+        if (args[0].equals("--bench")) {
+            benchmark(args.length > 1 ? Integer.parseInt(args[1]) : 2000);
+            return;
+        }
+        int n = Integer.parseInt(args[0]);
+        long seed = 42;
+        int max = 9;
+        Mode mode = Mode.AUTO;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--mode") && i + 1 < args.length) {
+                mode = Mode.valueOf(args[++i].toUpperCase());
+            } else if (args[i].equals("--max") && i + 1 < args.length) {
+                max = Integer.parseInt(args[++i]);
+            } else {
+                seed = Long.parseLong(args[i]);
+            }
+        }
+        solveDeterminant(randomMatrix(n, seed, max), mode);
     }
 }
@@ -0,0 +1,439 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * LU decomposition with partial pivoting: P*A = L*U, where L is unit lower
+ * triangular and U is upper triangular. Both are stored in one flat
+ * row-major n x n array (L below the diagonal, U on and above it). Factoring
+ * costs O(n^3), and the determinant is then the product of U's diagonal times
+ * the sign of P.
+ *
+ * The factorization is blocked and right-looking. For each panel of BLOCK
+ * columns it does three steps:
+ *   1. Factor the panel with partial pivoting.
+ *   2. Solve for the block row of U to its right.
+ *   3. Subtract L21 * U12 from the trailing submatrix.
+ * Step 3 is almost all of the 2n^3/3 flops. It works on tiles small enough
+ * to stay in cache, and row bands of tiles run in parallel on a ForkJoinPool.
+ *
+ * The factorization is worth keeping: once it exists, solving A x = b costs
+ * O(n^2) per right-hand side, the inverse O(n^3) more with no refactoring,
+ * and the rank comes from U alone. Hold on to one object per matrix and ask
+ * it as many questions as needed.
+ */
+class LuFactorization {
+
+    static final int BLOCK = 64;          // panel width
+    static final int TILE_COLS = 256;     // trailing-update columns per tile (BLOCK x 256 doubles = 128 KB)
+    static final int TILE_ROWS = 32;      // rows per parallel task, at least
+    static final long PARALLEL_FLOPS = 1 << 20;  // smaller trailing updates stay on the calling thread
+
+    final int n;
+    final double[] lu;       // L and U packed together, row-major
+    final int[] pivot;       // row i of LU is row pivot[i] of A
+    private int sign = 1;    // +1 or -1, the determinant of P
+    private final double norm1;       // ||A||_1, largest absolute column sum
+    private final double largestEntry; // max |a_ij|, for the growth factor
+    private Matrix inverse;  // computed on first request
+    private int rank = -1;   // computed on first request
+
+    // Factors a copy of the square matrix a (a itself is not changed)
+    LuFactorization(double[][] a) {
+        this(Matrix.of(a));
+    }
+
+    LuFactorization(Matrix a) {
+        this(a, BLOCK, true);
+    }
+
+    // blockSize 1 gives the plain unblocked algorithm; parallel false keeps
+    // everything on the calling thread (both are used as benchmark baselines)
+    LuFactorization(Matrix a, int blockSize, boolean parallel) {
+        if (!a.isSquare()) {
+            throw new IllegalArgumentException("Matrix is not square: " + a.rows + "x" + a.cols);
+        }
+        n = a.rows;
+        lu = a.data.clone();
+        double[] columnSums = new double[n];
+        double largest = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double v = Math.abs(lu[i * n + j]);
+                columnSums[j] += v;
+                largest = Math.max(largest, v);
+            }
+        }
+        double norm = 0;
+        for (double sum : columnSums) norm = Math.max(norm, sum);
+        norm1 = norm;
+        largestEntry = largest;
+        pivot = new int[n];
+        for (int i = 0; i < n; i++) pivot[i] = i;
+        factor(Math.max(1, blockSize), parallel);
+    }
+
+    private void factor(int blockSize, boolean parallel) {
+        for (int kb = 0; kb < n; kb += blockSize) {
+            int kEnd = Math.min(kb + blockSize, n);
+            factorPanel(kb, kEnd);
+            solveBlockRow(kb, kEnd);
+            if (kEnd < n) {
+                TrailingUpdate update = new TrailingUpdate(kb, kEnd, kEnd, n);
+                long flops = 2L * (kEnd - kb) * (n - kEnd) * (n - kEnd);
+                if (parallel && flops >= PARALLEL_FLOPS) ForkJoinPool.commonPool().invoke(update);
+                else update.compute();
+            }
+        }
+    }
+
+    // Step 1: unblocked LU with partial pivoting on columns [kb, kEnd), all rows below kb.
+    // Row swaps move whole rows, so the parts left of the panel follow too.
+    private void factorPanel(int kb, int kEnd) {
+        for (int k = kb; k < kEnd; k++) {
+            int p = k;
+            double largest = Math.abs(lu[k * n + k]);
+            for (int i = k + 1; i < n; i++) {
+                double v = Math.abs(lu[i * n + k]);
+                if (v > largest) {
+                    largest = v;
+                    p = i;
+                }
+            }
+            if (p != k) swapRows(p, k);
+            if (largest == 0) continue; // singular column, nothing to eliminate
+
+            int rowK = k * n;
+            double diag = lu[rowK + k];
+            for (int i = k + 1; i < n; i++) {
+                int rowI = i * n;
+                double factor = lu[rowI + k] / diag;
+                lu[rowI + k] = factor;
+                if (factor == 0) continue;
+                for (int j = k + 1; j < kEnd; j++) {
+                    lu[rowI + j] -= factor * lu[rowK + j];
+                }
+            }
+        }
+    }
+
+    // Step 2: U12 = L11^-1 * A12, forward substitution with the unit lower panel block
+    private void solveBlockRow(int kb, int kEnd) {
+        for (int k = kb; k < kEnd; k++) {
+            int rowK = k * n;
+            for (int i = k + 1; i < kEnd; i++) {
+                int rowI = i * n;
+                double factor = lu[rowI + k];
+                if (factor == 0) continue;
+                for (int j = kEnd; j < n; j++) {
+                    lu[rowI + j] -= factor * lu[rowK + j];
+                }
+            }
+        }
+    }
+
+    private void swapRows(int a, int b) {
+        int rowA = a * n, rowB = b * n;
+        for (int j = 0; j < n; j++) {
+            double t = lu[rowA + j];
+            lu[rowA + j] = lu[rowB + j];
+            lu[rowB + j] = t;
+        }
+        int t = pivot[a];
+        pivot[a] = pivot[b];
+        pivot[b] = t;
+        sign = -sign;
+    }
+
+    // Step 3: A22 -= L21 * U12 over rows [rowFrom, rowTo), split in half until the bands are small
+    private class TrailingUpdate extends RecursiveAction {
+        private final int kb, kEnd, rowFrom, rowTo;
+
+        TrailingUpdate(int kb, int kEnd, int rowFrom, int rowTo) {
+            this.kb = kb;
+            this.kEnd = kEnd;
+            this.rowFrom = rowFrom;
+            this.rowTo = rowTo;
+        }
+
+        @Override
+        protected void compute() {
+            int rows = rowTo - rowFrom;
+            long flops = 2L * (kEnd - kb) * rows * (n - kEnd);
+            if (rows >= 2 * TILE_ROWS && flops >= PARALLEL_FLOPS) {
+                int mid = rowFrom + rows / 2;
+                invokeAll(new TrailingUpdate(kb, kEnd, rowFrom, mid),
+                          new TrailingUpdate(kb, kEnd, mid, rowTo));
+                return;
+            }
+            // Column tiles keep the U12 slice in cache while every row of the band reuses it
+            for (int jb = kEnd; jb < n; jb += TILE_COLS) {
+                int jEnd = Math.min(jb + TILE_COLS, n);
+                for (int i = rowFrom; i < rowTo; i++) {
+                    int rowI = i * n;
+                    for (int k = kb; k < kEnd; k++) {
+                        double factor = lu[rowI + k];
+                        if (factor == 0) continue;
+                        int rowK = k * n;
+                        for (int j = jb; j < jEnd; j++) {
+                            lu[rowI + j] -= factor * lu[rowK + j];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // U's diagonal entry i
+    double diagonal(int i) {
+        return lu[i * n + i];
+    }
+
+    // True when some pivot is exactly zero
+    boolean isSingular() {
+        for (int i = 0; i < n; i++) {
+            if (diagonal(i) == 0) return true;
+        }
+        return false;
+    }
+
+    // det(A). The product is kept as mantissa and exponent while it is
+    // built, so it only overflows to infinity (or underflows to 0) when the
+    // determinant itself is out of double range.
+    double determinant() {
+        double mantissa = sign;
+        int exponent = 0;
+        for (int i = 0; i < n; i++) {
+            mantissa *= diagonal(i);
+            if (mantissa == 0) return 0;
+            int e = Math.getExponent(mantissa);
+            exponent += e;
+            mantissa = Math.scalb(mantissa, -e);
+        }
+        return Math.scalb(mantissa, exponent);
+    }
+
+    // log(|det(A)|), usable when det(A) itself is too large or small for a double
+    double logAbsDeterminant() {
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += Math.log(Math.abs(diagonal(i)));
+        }
+        return sum;
+    }
+
+    // Estimate of the 1-norm condition number ||A||_1 * ||A^-1||_1 (Hager's
+    // method, as in LAPACK's xGECON): a few solves with A and A^T instead of
+    // forming the inverse. Infinite for a singular matrix.
+    double conditionEstimate() {
+        if (n == 0) return 1;
+        if (isSingular()) return Double.POSITIVE_INFINITY;
+        double[] x = new double[n];
+        Arrays.fill(x, 1.0 / n);
+        double estimate = 0;
+        for (int iteration = 0; iteration < 5; iteration++) {
+            double[] y = x.clone();
+            solveInPlace(y);
+            estimate = 0;
+            for (double v : y) estimate += Math.abs(v);
+            double[] z = new double[n];
+            for (int i = 0; i < n; i++) z[i] = y[i] >= 0 ? 1 : -1;
+            solveTransposeInPlace(z);
+            int best = 0;
+            double zx = 0;
+            for (int i = 0; i < n; i++) {
+                if (Math.abs(z[i]) > Math.abs(z[best])) best = i;
+                zx += z[i] * x[i];
+            }
+            if (Math.abs(z[best]) <= zx) break; // local maximum reached
+            Arrays.fill(x, 0);
+            x[best] = 1;
+        }
+        return norm1 * estimate;
+    }
+
+    // Rough bound on the relative error of determinant(): LU is backward
+    // stable, so the result is the exact determinant of A + E with
+    // ||E|| about n * growth * eps * ||A||, which moves det by about n times
+    // that relative to the conditioning of A
+    double determinantErrorEstimate() {
+        if (n == 0) return 0;
+        double growth = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i; j < n; j++) growth = Math.max(growth, Math.abs(lu[i * n + j]));
+        }
+        growth = largestEntry == 0 ? 1 : growth / largestEntry;
+        return Math.min(1, (double) n * n * growth * Math.ulp(1.0) * conditionEstimate());
+    }
+
+    // Overwrites b with the solution of A x = b (P A = L U: permute, forward, back)
+    void solveInPlace(double[] b) {
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) x[i] = b[pivot[i]];
+        for (int i = 0; i < n; i++) {
+            double sum = x[i];
+            for (int k = 0; k < i; k++) sum -= lu[i * n + k] * x[k];
+            x[i] = sum;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = x[i];
+            for (int k = i + 1; k < n; k++) sum -= lu[i * n + k] * x[k];
+            x[i] = sum / lu[i * n + i];
+        }
+        System.arraycopy(x, 0, b, 0, n);
+    }
+
+    // Overwrites b with the solution of A^T x = b (U^T w = b, L^T v = w, x = P^T v)
+    void solveTransposeInPlace(double[] b) {
+        double[] w = b.clone();
+        for (int i = 0; i < n; i++) {
+            double sum = w[i];
+            for (int k = 0; k < i; k++) sum -= lu[k * n + i] * w[k];
+            w[i] = sum / lu[i * n + i];
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = w[i];
+            for (int k = i + 1; k < n; k++) sum -= lu[k * n + i] * w[k];
+            w[i] = sum;
+        }
+        for (int i = 0; i < n; i++) b[pivot[i]] = w[i];
+    }
+
+    // x with A x = b; b is not changed. Throws ArithmeticException when A is singular.
+    double[] solve(double[] b) {
+        if (b.length != n) {
+            throw new IllegalArgumentException("Right-hand side has " + b.length + " entries, expected " + n);
+        }
+        requireNonsingular();
+        double[] x = b.clone();
+        solveInPlace(x);
+        return x;
+    }
+
+    // X with A X = B, one column of B per right-hand side. B is not changed.
+    // All columns go through the substitution together, so each row of L and
+    // U is read once per block of columns instead of once per column.
+    Matrix solve(Matrix b) {
+        if (b.rows != n) {
+            throw new IllegalArgumentException("Right-hand side has " + b.rows + " rows, expected " + n);
+        }
+        requireNonsingular();
+        Matrix x = new Matrix(n, b.cols);
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(b.data, pivot[i] * b.cols, x.data, i * b.cols, b.cols);
+        }
+        Substitution substitution = new Substitution(x, 0, b.cols);
+        if (2L * n * n * b.cols >= PARALLEL_FLOPS) ForkJoinPool.commonPool().invoke(substitution);
+        else substitution.compute();
+        return x;
+    }
+
+    // A^-1, solved from the identity once and then kept. Returns a copy, so
+    // callers may change it. Throws ArithmeticException when A is singular.
+    Matrix inverse() {
+        if (inverse == null) {
+            Matrix identity = new Matrix(n, n);
+            for (int i = 0; i < n; i++) identity.set(i, i, 1);
+            inverse = solve(identity);
+        }
+        return inverse.copy();
+    }
+
+    // Numerical rank: the number of rows of U that stay independent at
+    // tolerance n^2 * eps * ||A||_1, a bound on the rounding error the
+    // elimination leaves in U. P and L are invertible, so rank(A) = rank(U).
+    // With partial pivoting a zero pivot does not always mean a lost rank
+    // (e.g. [[0, 1], [0, 0]] has rank 1), so when some pivot is small U is
+    // reduced once more, choosing the largest entry of each column. Like any
+    // LU-based rank it can be off by one for matrices within rounding of a
+    // lower rank; DeterminantSolver.determinantExact settles integer input.
+    int rank() {
+        if (rank >= 0) return rank;
+        double tolerance = (double) n * n * Math.ulp(1.0) * norm1;
+        boolean full = true;
+        for (int i = 0; i < n && full; i++) full = Math.abs(diagonal(i)) > tolerance;
+        if (full) return rank = n;
+
+        double[] u = new double[n * n];
+        for (int i = 0; i < n; i++) System.arraycopy(lu, i * n + i, u, i * n + i, n - i);
+        int r = 0;
+        for (int col = 0; col < n && r < n; col++) {
+            int p = r;
+            for (int i = r + 1; i < n; i++) {
+                if (Math.abs(u[i * n + col]) > Math.abs(u[p * n + col])) p = i;
+            }
+            if (Math.abs(u[p * n + col]) <= tolerance) continue;
+            for (int j = col; j < n; j++) {
+                double t = u[p * n + j];
+                u[p * n + j] = u[r * n + j];
+                u[r * n + j] = t;
+            }
+            for (int i = r + 1; i < n; i++) {
+                double factor = u[i * n + col] / u[r * n + col];
+                if (factor == 0) continue;
+                for (int j = col; j < n; j++) u[i * n + j] -= factor * u[r * n + j];
+            }
+            r++;
+        }
+        return rank = r;
+    }
+
+    private void requireNonsingular() {
+        if (isSingular()) throw new ArithmeticException("Matrix is singular (rank " + rank() + " of " + n + ")");
+    }
+
+    // Forward and back substitution on columns [colFrom, colTo) of x, which
+    // already holds P B. Column bands are independent, so they run in parallel.
+    private class Substitution extends RecursiveAction {
+        private final Matrix x;
+        private final int colFrom, colTo;
+
+        Substitution(Matrix x, int colFrom, int colTo) {
+            this.x = x;
+            this.colFrom = colFrom;
+            this.colTo = colTo;
+        }
+
+        @Override
+        protected void compute() {
+            int cols = colTo - colFrom;
+            if (cols >= 2 * TILE_ROWS && 2L * n * n * cols >= PARALLEL_FLOPS) {
+                int mid = colFrom + cols / 2;
+                invokeAll(new Substitution(x, colFrom, mid), new Substitution(x, mid, colTo));
+                return;
+            }
+            int m = x.cols;
+            double[] v = x.data;
+            for (int i = 0; i < n; i++) {           // L y = P b, L unit lower
+                int rowI = i * m;
+                for (int k = 0; k < i; k++) {
+                    double factor = lu[i * n + k];
+                    if (factor == 0) continue;
+                    int rowK = k * m;
+                    for (int j = colFrom; j < colTo; j++) v[rowI + j] -= factor * v[rowK + j];
+                }
+            }
+            for (int i = n - 1; i >= 0; i--) {      // U x = y
+                int rowI = i * m;
+                for (int k = i + 1; k < n; k++) {
+                    double factor = lu[i * n + k];
+                    if (factor == 0) continue;
+                    int rowK = k * m;
+                    for (int j = colFrom; j < colTo; j++) v[rowI + j] -= factor * v[rowK + j];
+                }
+                double diag = lu[i * n + i];
+                for (int j = colFrom; j < colTo; j++) v[rowI + j] /= diag;
+            }
+        }
+    }
+
+    // Sign of det(A): -1, 0 or 1
+    int signum() {
+        int s = sign;
+        for (int i = 0; i < n; i++) {
+            if (diagonal(i) == 0) return 0;
+            if (diagonal(i) < 0) s = -s;
+        }
+        return s;
+    }
+}
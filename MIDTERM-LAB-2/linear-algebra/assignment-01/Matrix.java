@@ -0,0 +1,60 @@
+import java.util.Random;
+
+/**
+ * Dense matrix stored in one flat row-major double[]: entry (i, j) is
+ * data[i * cols + j]. Unlike double[][], the rows sit next to each other in
+ * memory, so walking a row (or several consecutive rows) streams through the
+ * cache without chasing a pointer per row.
+ */
+class Matrix {
+
+    final int rows, cols;
+    final double[] data;
+
+    Matrix(int rows, int cols) {
+        if ((long) rows * cols > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Matrix too large: " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.data = new double[rows * cols];
+    }
+
+    // Copies a rectangular double[][]
+    static Matrix of(double[][] m) {
+        int cols = m.length == 0 ? 0 : m[0].length;
+        Matrix result = new Matrix(m.length, cols);
+        for (int i = 0; i < m.length; i++) {
+            if (m[i].length != cols) throw new IllegalArgumentException("Row " + i + " has " + m[i].length
+                                                                       + " columns, expected " + cols);
+            System.arraycopy(m[i], 0, result.data, i * cols, cols);
+        }
+        return result;
+    }
+
+    // Square matrix with uniform entries in [-1, 1)
+    static Matrix random(int n, long seed) {
+        Random random = new Random(seed);
+        Matrix m = new Matrix(n, n);
+        for (int i = 0; i < m.data.length; i++) m.data[i] = random.nextDouble() * 2 - 1;
+        return m;
+    }
+
+    double get(int i, int j) {
+        return data[i * cols + j];
+    }
+
+    void set(int i, int j, double value) {
+        data[i * cols + j] = value;
+    }
+
+    Matrix copy() {
+        Matrix m = new Matrix(rows, cols);
+        System.arraycopy(data, 0, m.data, 0, data.length);
+        return m;
+    }
+
+    boolean isSquare() {
+        return rows == cols;
+    }
+}
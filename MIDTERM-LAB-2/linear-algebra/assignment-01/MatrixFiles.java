@@ -0,0 +1,294 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+
+/**
+ * Reading and writing files that hold many square matrices, one after another,
+ * without loading the whole file.
+ *
+ * Text: one row per line, entries separated by commas, semicolons, spaces or
+ * tabs. A matrix ends once it has as many rows as columns, or at a blank line.
+ * Text after '#' is a comment.
+ *
+ * Binary (little-endian, every field 8-byte aligned):
+ *   header: "DETM", int version (1)
+ *   record: int n, int 0 (padding), n*n doubles row-major
+ * Binary files are read through memory-mapped windows, so a 50 GB corpus
+ * costs no more heap than a small one.
+ */
+class MatrixFiles {
+
+    static final byte[] MAGIC = { 'D', 'E', 'T', 'M' };
+    static final int VERSION = 1;
+
+    // Exact powers of ten for the fast decimal path
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // A sequence of matrices. data() is reused between calls, so copy it to keep it.
+    interface Source extends Closeable {
+        // Moves to the next matrix, false at the end of the file
+        boolean next() throws IOException;
+
+        int size();
+
+        // Row-major entries of the current matrix, valid in [0, size*size)
+        double[] data();
+    }
+
+    // Picks the reader from the first bytes of the file
+    static Source open(Path path) throws IOException {
+        byte[] head = new byte[4];
+        int read;
+        try (InputStream in = Files.newInputStream(path)) {
+            read = in.readNBytes(head, 0, 4);
+        }
+        if (read == 4 && Arrays.equals(head, MAGIC)) return new BinaryReader(path);
+        return new TextReader(new FileInputStream(path.toFile()));
+    }
+
+    // Copies every matrix of source into a binary file; returns the count
+    static long writeBinary(Source source, Path out) throws IOException {
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.put(MAGIC).putInt(VERSION);
+            while (source.next()) {
+                int n = source.size();
+                double[] data = source.data();
+                if (buffer.remaining() < 8) drain(channel, buffer);
+                buffer.putInt(n).putInt(0);
+                for (int i = 0; i < n * n; i++) {
+                    if (buffer.remaining() < 8) drain(channel, buffer);
+                    buffer.putDouble(data[i]);
+                }
+                count++;
+            }
+            drain(channel, buffer);
+        }
+        return count;
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    // ── Text ────────────────────────────────────────────────────────────
+    static class TextReader implements Source {
+        private final InputStream in;
+        private final byte[] buf = new byte[1 << 20];
+        private int pos, limit;
+        private boolean eof;
+        private long line = 1;
+        private long index = -1;       // matrices returned so far - 1
+
+        private byte[] token = new byte[64];
+        private double[] data = new double[16];
+        private int n;
+
+        TextReader(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            int columns = -1, rows = 0, count = 0;
+            while (true) {
+                int rowStart = count;
+                long rowLine = line;
+                int c;
+                boolean comment = false;
+                // One line: numbers until '\n' or end of input
+                while ((c = peek()) >= 0 && c != '\n') {
+                    if (c == ',' || c == ';' || c == ' ' || c == '\t' || c == '\r' || c == '[' || c == ']') {
+                        pos++;
+                    } else if (c == '#') {
+                        comment = true;
+                        while ((c = peek()) >= 0 && c != '\n') pos++;
+                    } else {
+                        if (count == data.length) data = Arrays.copyOf(data, count * 2);
+                        data[count++] = readNumber();
+                    }
+                }
+                if (c == '\n') {
+                    pos++;
+                    line++;
+                }
+
+                int width = count - rowStart;
+                if (width > 0) {
+                    if (columns < 0) columns = width;
+                    else if (width != columns) {
+                        throw new IOException("Line " + rowLine + ": row has " + width + " values, expected " + columns);
+                    }
+                    rows++;
+                }
+                boolean blank = width == 0 && !comment;  // a comment-only line does not end a matrix
+                if (rows > 0 && (rows == columns || (blank && c >= 0) || c < 0)) {
+                    if (rows != columns) {
+                        throw new IOException("Line " + rowLine + ": matrix " + (index + 1) + " has " + rows
+                                              + " rows and " + columns + " columns");
+                    }
+                    n = columns;
+                    index++;
+                    return true;
+                }
+                if (c < 0) return false;
+            }
+        }
+
+        @Override
+        public int size() { return n; }
+
+        @Override
+        public double[] data() { return data; }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        // Reads one number token; plain decimals are parsed here, anything else by Double.parseDouble
+        private double readNumber() throws IOException {
+            int length = 0;
+            int c;
+            while ((c = peek()) >= 0 && c != ',' && c != ';' && c != ' ' && c != '\t'
+                   && c != '\r' && c != '\n' && c != ']' && c != '#') {
+                if (length == token.length) token = Arrays.copyOf(token, length * 2);
+                token[length++] = (byte) c;
+                pos++;
+            }
+            int i = 0;
+            boolean negative = length > 0 && token[0] == '-';
+            if (negative || length > 0 && token[0] == '+') i++;
+            long mantissa = 0;
+            int digits = 0, scale = 0;
+            for (; i < length && token[i] >= '0' && token[i] <= '9'; i++, digits++) {
+                mantissa = mantissa * 10 + (token[i] - '0');
+            }
+            if (i < length && token[i] == '.') {
+                for (i++; i < length && token[i] >= '0' && token[i] <= '9'; i++, digits++, scale++) {
+                    mantissa = mantissa * 10 + (token[i] - '0');
+                }
+            }
+            if (i == length && digits > 0 && digits <= 15 && scale <= 22) {
+                double value = mantissa / POW10[scale]; // correctly rounded: both operands are exact
+                return negative ? -value : value;
+            }
+            String text = new String(token, 0, length, StandardCharsets.US_ASCII);
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                throw new IOException("Line " + line + ": not a number: " + text);
+            }
+        }
+
+        private int peek() throws IOException {
+            if (pos == limit) {
+                if (eof) return -1;
+                limit = in.read(buf, 0, buf.length);
+                pos = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    eof = true;
+                    return -1;
+                }
+            }
+            return buf[pos];
+        }
+    }
+
+    // ── Binary ──────────────────────────────────────────────────────────
+    static class BinaryReader implements Source {
+        static final long WINDOW = 1 << 28;   // bytes mapped at a time
+
+        private final FileChannel channel;
+        private final long fileSize;
+        private MappedByteBuffer window;
+        private DoubleBuffer doubles;        // view of window
+        private long windowStart, position;  // file offsets
+        private long index = -1;
+
+        private double[] data = new double[16];
+        private int n;
+
+        BinaryReader(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                fileSize = channel.size();
+                if (fileSize < 8) throw truncated();
+                map(0, 8);
+                byte[] magic = new byte[4];
+                window.get(magic);
+                if (!Arrays.equals(magic, MAGIC) || window.getInt() != VERSION) {
+                    throw new IOException(path + " is not a version " + VERSION + " matrix file");
+                }
+            } catch (IOException | RuntimeException e) {
+                channel.close();  // nothing else would: open() never returns this reader
+                throw e;
+            }
+            position = 8;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            if (position == fileSize) return false;
+            if (fileSize - position < 8) throw truncated();
+            ensure(8);
+            int size = window.getInt((int) (position - windowStart));
+            if (size < 0 || (long) size * size > Integer.MAX_VALUE - 8) {
+                throw new IOException("Matrix " + (index + 1) + " has invalid size " + size);
+            }
+            long bytes = 8 + 8L * size * size;
+            if (fileSize - position < bytes) throw truncated();
+            ensure(bytes);
+            if (data.length < size * size) data = new double[Math.max(size * size, data.length * 2)];
+            doubles.get((int) ((position + 8 - windowStart) / 8), data, 0, size * size);
+            n = size;
+            position += bytes;
+            index++;
+            return true;
+        }
+
+        @Override
+        public int size() { return n; }
+
+        @Override
+        public double[] data() { return data; }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        // Maps a new window at the current record when the next `bytes` are not already mapped
+        private void ensure(long bytes) throws IOException {
+            if (position + bytes <= windowStart + window.capacity()) return;
+            map(position, bytes);
+        }
+
+        private void map(long start, long atLeast) throws IOException {
+            long length = Math.min(Math.max(WINDOW, atLeast), fileSize - start);
+            if (length > Integer.MAX_VALUE - 8) throw new IOException("Matrix " + (index + 1) + " is too large to map");
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            window.order(ByteOrder.LITTLE_ENDIAN);
+            doubles = window.asDoubleBuffer();
+            windowStart = start;
+        }
+
+        private IOException truncated() {
+            return new IOException("File ends inside matrix " + (index + 1));
+        }
+    }
+}
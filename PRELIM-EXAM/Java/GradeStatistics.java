@@ -0,0 +1,274 @@
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+// Class-wide statistics over every grade column of a StudentStore: count,
+// mean, variance, percentiles and a histogram per column, plus each student's
+// rank by average. The constructor copies the columns out of the store (on
+// the EDT); compute() then works only on those primitive arrays, so it can
+// run on a worker while the table is edited.
+// The loops are plain counted loops over double[] with several independent
+// accumulators, which the JIT unrolls and vectorizes. Percentiles, the
+// histogram and the ranking come from LSD radix sorts of the doubles' bits,
+// linear in the number of students.
+class GradeStatistics {
+
+    static final double[] PERCENTILES = {0, 10, 25, 50, 75, 90, 100};
+    static final int BINS = 10;          // 0-9, 10-19, ... 90-100; outliers go in the end bins
+    static final int TOP = 10;           // students listed by rank
+
+    final String[] columnNames;
+    final int students;
+
+    // Per column; filled in by compute()
+    final int[] counts;                  // students who have a grade in the column
+    final double[] means, variances;     // population variance
+    final double[][] percentiles;         // [column][PERCENTILES index]
+    final int[][] histograms;            // [column][bin]
+    final int[] ranks;                   // per student in table order, 1 = best, ties share a rank
+    int[] ranked;                        // rows in rank order, the best first; ties in table order
+    long millis;
+
+    private final double[][] columns;    // [column][row], NaN where a student has no grade
+    private final double[] averages;
+    private final String[] ids, names;
+
+    GradeStatistics(StudentStore store, String[] gradeNames) {
+        students = store.size();
+        int width = store.gradeColumns();
+        columnNames = new String[width];
+        columns = new double[width][];
+        for (int c = 0; c < width; c++) {
+            columnNames[c] = gradeNames != null && c < gradeNames.length ? gradeNames[c] : "Grade " + (c + 1);
+            columns[c] = store.column(c);
+        }
+        averages = new double[students];
+        ids = new String[students];
+        names = new String[students];
+        for (int row = 0; row < students; row++) {
+            averages[row] = store.average(row);
+            ids[row] = store.id(row);
+            names[row] = store.name(row);
+        }
+        counts = new int[width];
+        means = new double[width];
+        variances = new double[width];
+        percentiles = new double[width][];
+        histograms = new int[width][];
+        ranks = new int[students];
+    }
+
+    // The heavy part; touches nothing but the copied arrays
+    GradeStatistics compute() {
+        long start = System.nanoTime();
+        for (int c = 0; c < columns.length; c++) {
+            double[] values = columns[c];
+            int n = dropMissing(values);
+            double mean = n == 0 ? Double.NaN : sum(values, n) / n;
+            counts[c] = n;
+            means[c] = mean;
+            variances[c] = n == 0 ? Double.NaN : squaredDeviations(values, n, mean) / n;
+
+            sort(values, n);
+            percentiles[c] = new double[PERCENTILES.length];
+            for (int p = 0; p < PERCENTILES.length; p++) percentiles[c][p] = percentile(values, n, PERCENTILES[p]);
+            histograms[c] = histogram(values, n);
+        }
+        rank();
+        millis = (System.nanoTime() - start) / 1_000_000;
+        return this;
+    }
+
+    // ----- Output -----
+    // Plain text for the side panel
+    String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Students: %,d  (%,d ms)%n", students, millis));
+        for (int c = 0; c < columnNames.length; c++) {
+            sb.append(String.format("%n%s  (n = %,d)%n", columnNames[c], counts[c]));
+            if (counts[c] == 0) continue;
+            sb.append(String.format("  Mean %.2f  SD %.2f  Var %.2f%n", means[c], Math.sqrt(variances[c]), variances[c]));
+            double[] p = percentiles[c];
+            sb.append(String.format("  Min %.1f  P10 %.1f  P25 %.1f%n", p[0], p[1], p[2]));
+            sb.append(String.format("  Median %.1f  P75 %.1f  P90 %.1f  Max %.1f%n", p[3], p[4], p[5], p[6]));
+            int most = Arrays.stream(histograms[c]).max().orElse(1);
+            for (int b = 0; b < BINS; b++) {
+                int count = histograms[c][b];
+                int bar = most == 0 ? 0 : (int) Math.round(20.0 * count / most);
+                sb.append(String.format("  %3d-%-3d %-20s %5.1f%%%n", b * 10, b == BINS - 1 ? 100 : b * 10 + 9,
+                                        "#".repeat(bar), 100.0 * count / counts[c]));
+            }
+        }
+        sb.append(String.format("%nTop %d by average%n", TOP));
+        for (int i = 0; i < Math.min(TOP, students); i++) {
+            int row = ranked[i];
+            sb.append(String.format("  %2d. %s %s  %.2f%n", ranks[row], ids[row], names[row], averages[row]));
+        }
+        return sb.toString();
+    }
+
+    // Column statistics, then every student in rank order
+    void writeCsv(PrintWriter out) {
+        StringBuilder header = new StringBuilder("Column,Count,Mean,Variance,Std Dev");
+        for (double p : PERCENTILES) header.append(",P").append((int) p);
+        for (int b = 0; b < BINS; b++) header.append(",Bin ").append(b * 10).append('-').append(b == BINS - 1 ? 100 : b * 10 + 9);
+        out.println(header);
+        for (int c = 0; c < columnNames.length; c++) {
+            StringBuilder line = new StringBuilder(columnNames[c]).append(',').append(counts[c])
+                .append(',').append(means[c]).append(',').append(variances[c]).append(',').append(Math.sqrt(variances[c]));
+            for (double v : percentiles[c]) line.append(',').append(v);
+            for (int count : histograms[c]) line.append(',').append(count);
+            out.println(line);
+        }
+        out.println();
+        out.println("Rank,ID,Name,Average");
+        for (int row : ranked) {
+            out.println(ranks[row] + "," + ids[row] + "," + names[row] + "," + averages[row]);
+        }
+    }
+
+    // ----- Internals -----
+    // Moves the grades to the front, dropping the NaNs of students without one; returns how many
+    private static int dropMissing(double[] values) {
+        int n = 0;
+        for (int i = 0; i < values.length; i++) {
+            double v = values[i];
+            values[n] = v;
+            n += v == v ? 1 : 0;
+        }
+        return n;
+    }
+
+    // Four running sums, so the additions don't wait on each other
+    private static double sum(double[] v, int n) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            s0 += v[i];
+            s1 += v[i + 1];
+            s2 += v[i + 2];
+            s3 += v[i + 3];
+        }
+        for (; i < n; i++) s0 += v[i];
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    // Second pass around the mean, steadier than sum of squares minus squared sum
+    private static double squaredDeviations(double[] v, int n, double mean) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            double d0 = v[i] - mean, d1 = v[i + 1] - mean, d2 = v[i + 2] - mean, d3 = v[i + 3] - mean;
+            s0 += d0 * d0;
+            s1 += d1 * d1;
+            s2 += d2 * d2;
+            s3 += d3 * d3;
+        }
+        for (; i < n; i++) {
+            double d = v[i] - mean;
+            s0 += d * d;
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    // Linear between the closest ranks, as spreadsheets' PERCENTILE.INC
+    private static double percentile(double[] sorted, int n, double p) {
+        if (n == 0) return Double.NaN;
+        double at = p / 100 * (n - 1);
+        int lo = (int) at;
+        if (lo >= n - 1) return sorted[n - 1];
+        return sorted[lo] + (at - lo) * (sorted[lo + 1] - sorted[lo]);
+    }
+
+    // Bin counts from the sorted column: one binary search per bin edge
+    private static int[] histogram(double[] sorted, int n) {
+        int[] bins = new int[BINS];
+        int below = 0;
+        for (int b = 0; b < BINS - 1; b++) {
+            int edge = firstAtLeast(sorted, n, (b + 1) * 10.0);
+            bins[b] = edge - below;
+            below = edge;
+        }
+        bins[BINS - 1] = n - below;
+        return bins;
+    }
+
+    private static int firstAtLeast(double[] sorted, int n, double key) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Rows by falling average (the sort is stable, so ties stay in table
+    // order); a student's rank is 1 + the students with a higher average
+    private void rank() {
+        long[] keys = new long[students];
+        ranked = new int[students];
+        for (int row = 0; row < students; row++) {
+            keys[row] = ~sortable(averages[row]);
+            ranked[row] = row;
+        }
+        radixSort(keys, ranked, students);
+        for (int i = 0; i < students; i++) {
+            ranks[ranked[i]] = i > 0 && keys[i] == keys[i - 1] ? ranks[ranked[i - 1]] : i + 1;
+        }
+    }
+
+    private static void sort(double[] values, int n) {
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) keys[i] = sortable(values[i]);
+        radixSort(keys, null, n);
+        for (int i = 0; i < n; i++) values[i] = unsortable(keys[i]);
+    }
+
+    // Bits of v whose unsigned order is Double.compare's order
+    private static long sortable(double v) {
+        long bits = Double.doubleToLongBits(v);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    private static double unsortable(long key) {
+        return Double.longBitsToDouble(key < 0 ? key ^ Long.MIN_VALUE : ~key);
+    }
+
+    // Stable LSD radix sort of the first n keys as unsigned, a byte per pass,
+    // moving rows (if given) along. A byte that every key shares is skipped.
+    private static void radixSort(long[] keys, int[] rows, int n) {
+        if (n < 2) return;
+        int[][] counts = new int[8][256];
+        for (int i = 0; i < n; i++) {
+            long k = keys[i];
+            for (int b = 0; b < 8; b++) counts[b][(int) (k >>> (8 * b)) & 0xFF]++;
+        }
+        long[] from = keys, to = new long[n];
+        int[] rowsFrom = rows, rowsTo = rows == null ? null : new int[n];
+        for (int b = 0; b < 8; b++) {
+            int shift = 8 * b;
+            int[] start = counts[b];
+            if (start[(int) (keys[0] >>> shift) & 0xFF] == n) continue;
+            for (int d = 0, sum = 0; d < 256; d++) {
+                int count = start[d];
+                start[d] = sum;
+                sum += count;
+            }
+            for (int i = 0; i < n; i++) {
+                int at = start[(int) (from[i] >>> shift) & 0xFF]++;
+                to[at] = from[i];
+                if (rowsTo != null) rowsTo[at] = rowsFrom[i];
+            }
+            long[] swapKeys = from;
+            from = to;
+            to = swapKeys;
+            int[] swapRows = rowsFrom;
+            rowsFrom = rowsTo;
+            rowsTo = swapRows;
+        }
+        if (from != keys) {
+            System.arraycopy(from, 0, keys, 0, n);
+            if (rows != null) System.arraycopy(rowsFrom, 0, rows, 0, n);
+        }
+    }
+}
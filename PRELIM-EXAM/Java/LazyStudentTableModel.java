@@ -0,0 +1,388 @@
+import javax.swing.table.AbstractTableModel;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Table model for student files too large to load. Opening only records
+// where each line starts (one pass over the bytes, nothing parsed); a row is
+// read and decoded when the table asks for it, and the last CACHE_ROWS
+// decoded rows are kept in an LRU cache, which easily covers what is on
+// screen while scrolling. Students added in the window are kept in a small
+// StudentStore and shown after the file rows; the file itself only changes
+// when StudentTableApp writes everything back on exit.
+class LazyStudentTableModel extends AbstractTableModel implements StudentRows, Closeable {
+
+    static final int CACHE_ROWS = 512;
+
+    private static final String[] COLUMNS = {"ID", "Name", "Average Grade"};
+
+    // One decoded line
+    private static final class Row {
+        final String id, name, average;
+
+        Row(String id, String name, String average) {
+            this.id = id;
+            this.name = name;
+            this.average = average;
+        }
+    }
+
+    private final Path file;
+    private FileChannel channel;
+    private boolean splitName;             // MOCK_DATA.csv layout: ID,First,Last,Grades...
+    private long[] starts;                 // file offset of each remaining file row
+    private int[] lengths;                 // its length, without the line break
+    private int fileRows;
+    private long[] idHashes;               // hash of each file row's ID, until ids is built
+    private IdHashes ids;                  // built on the first duplicate check, not while opening
+    private final StudentStore added = new StudentStore();
+
+    private final Map<Integer, Row> cache = new LinkedHashMap<Integer, Row>(CACHE_ROWS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Row> eldest) {
+            return size() > CACHE_ROWS;
+        }
+    };
+
+    LazyStudentTableModel(Path file) throws IOException {
+        this.file = file;
+        open();
+    }
+
+    @Override
+    public int getRowCount() { return fileRows + added.size(); }
+
+    @Override
+    public int getColumnCount() { return COLUMNS.length; }
+
+    @Override
+    public String getColumnName(int column) { return COLUMNS[column]; }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (row >= fileRows) {
+            int r = row - fileRows;
+            switch (column) {
+                case 0: return added.id(r);
+                case 1: return added.name(r);
+                default: return String.format("%.2f", added.average(r));
+            }
+        }
+        Row decoded = row(row);
+        switch (column) {
+            case 0: return decoded.id;
+            case 1: return decoded.name;
+            default: return decoded.average;
+        }
+    }
+
+    @Override
+    public boolean containsId(String id) {
+        return added.contains(id) || ids().contains(IdHashes.hash(id));
+    }
+
+    @Override
+    public void addStudent(String id, String name, double[] grades) {
+        if (ids().contains(IdHashes.hash(id))) throw new IllegalArgumentException("Student ID " + id + " already exists");
+        added.add(id, name, grades, grades.length);
+        int row = getRowCount() - 1;
+        fireTableRowsInserted(row, row);
+    }
+
+    @Override
+    public void removeRow(int row) {
+        if (row >= fileRows) {
+            added.removeRow(row - fileRows);
+        } else {
+            if (ids != null) ids.remove(IdHashes.hash(row(row).id));
+            else System.arraycopy(idHashes, row + 1, idHashes, row, fileRows - row - 1);
+            System.arraycopy(starts, row + 1, starts, row, fileRows - row - 1);
+            System.arraycopy(lengths, row + 1, lengths, row, fileRows - row - 1);
+            fileRows--;
+            cache.clear(); // rows below moved up
+        }
+        fireTableRowsDeleted(row, row);
+    }
+
+    @Override
+    public void addAllowingDuplicate(String id, String name, double[] grades) {
+        added.addAllowingDuplicate(id, name, grades, grades.length);
+        int row = getRowCount() - 1;
+        fireTableRowsInserted(row, row);
+    }
+
+    // Tries hint, then the added rows, then decodes the file rows one by one
+    @Override
+    public int findRow(String id, String name, int hint) {
+        if (hint >= 0 && hint < getRowCount() && id.equals(getValueAt(hint, 0)) && name.equals(getValueAt(hint, 1))) {
+            return hint;
+        }
+        int row = added.findRow(id, name);
+        if (row >= 0) return fileRows + row;
+        if (ids != null && !ids.contains(IdHashes.hash(id))) return -1;
+        for (row = 0; row < fileRows; row++) {
+            Row r = decode(row);
+            if (r.id.equals(id) && r.name.equals(name)) return row;
+        }
+        return -1;
+    }
+
+    // Reads the file once in order; a record is kept when its offset is still
+    // in the index. The file must not be replaced until this returns.
+    @Override
+    public void writeCsv(PrintWriter out) throws IOException {
+        try (CsvTokenizer csv = new CsvTokenizer(new BufferedInputStream(Files.newInputStream(file)))) {
+            out.println("ID,Name,Grades");
+            int gradesFrom = splitName ? 3 : 2;
+            int next = 0;
+            while (next < fileRows && csv.next()) {
+                if (csv.recordOffset() != starts[next]) continue;  // header, blank or deleted
+                next++;
+                if (csv.fieldCount() <= gradesFrom) continue;
+                String name = splitName ? csv.getString(1) + " " + csv.getString(2) : csv.getString(1);
+                out.println(csv.getString(0) + "," + name + "," + csv.getRaw(gradesFrom));
+            }
+        }
+        for (int i = 0; i < added.size(); i++) {
+            out.println(added.id(i) + "," + added.name(i) + "," + added.gradesText(i));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private IdHashes ids() {
+        if (ids == null) {
+            ids = new IdHashes(fileRows);
+            for (int i = 0; i < fileRows; i++) ids.add(idHashes[i]);
+            idHashes = null;
+        }
+        return ids;
+    }
+
+    // ----- Reading rows -----
+    private Row row(int row) {
+        Row r = cache.get(row);
+        if (r == null) {
+            r = decode(row);
+            cache.put(row, r);
+        }
+        return r;
+    }
+
+    private Row decode(int row) {
+        byte[] line = new byte[lengths[row]];
+        try {
+            ByteBuffer target = ByteBuffer.wrap(line);
+            while (target.hasRemaining()) {
+                if (channel.read(target, starts[row] + target.position()) < 0) break;
+            }
+            try (CsvTokenizer csv = new CsvTokenizer(new ByteArrayInputStream(line), line.length + 1)) {
+                int gradesFrom = splitName ? 3 : 2;
+                if (!csv.next() || csv.fieldCount() <= gradesFrom) {
+                    return new Row(csv.fieldCount() > 0 ? csv.getString(0) : "", "", "");
+                }
+                String name = splitName ? csv.getString(1) + " " + csv.getString(2) : csv.getString(1);
+                String average;
+                try {
+                    double sum = 0;
+                    for (int i = gradesFrom; i < csv.fieldCount(); i++) sum += csv.parseDouble(i);
+                    average = String.format("%.2f", sum / (csv.fieldCount() - gradesFrom));
+                } catch (NumberFormatException e) {
+                    average = "";  // shown blank rather than stopping the table from painting
+                }
+                return new Row(csv.getString(0), name, average);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading row " + row + " of " + file, e);
+        }
+    }
+
+    // ----- Indexing -----
+    // One pass over the bytes: line starts and lengths, and a hash of each ID.
+    // Quotes follow CsvTokenizer's rules, so a row here is a record there: a
+    // quote opens a quoted field only as the field's first byte, "" inside one
+    // is an escaped quote, and any other quote closes it. A quoted field can
+    // hold line breaks; a stray quote elsewhere is an ordinary byte.
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        starts = new long[1024];
+        lengths = new int[1024];
+        idHashes = new long[1024];
+        fileRows = 0;
+        ids = null;
+        added.clear();
+        cache.clear();
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        byte[] bytes = buffer.array();
+        long offset = 0, lineStart = 0;
+        boolean header = true, inId = true;  // inId: bytes still belong to the ID's value
+        boolean fieldStart = true, quoted = false, closing = false;  // closing: quoted, just saw a quote
+        long hash = IdHashes.SEED;
+        byte last = 0;                     // final byte of the previous chunk
+        int read;
+        while ((read = channel.read(buffer, offset)) > 0) {
+            for (int i = 0; i < read; i++) {
+                byte b = bytes[i];
+                if (quoted) {
+                    if (!closing) {
+                        if (b == '"') closing = true;
+                        else if (inId) hash = IdHashes.update(hash, b);
+                        continue;
+                    }
+                    closing = false;
+                    if (b == '"') {            // "" stands for one quote
+                        if (inId) hash = IdHashes.update(hash, b);
+                        continue;
+                    }
+                    quoted = false;            // the quote before b closed the field;
+                    inId = false;              // the tokenizer drops the rest up to the comma
+                }
+                if (b == '\n') {
+                    boolean cr = (i > 0 ? bytes[i - 1] : last) == '\r';
+                    header = endLine(header, lineStart, offset + i - (cr ? 1 : 0), hash);
+                    lineStart = offset + i + 1;
+                    fieldStart = inId = true;
+                    hash = IdHashes.SEED;
+                } else if (b == ',') {
+                    fieldStart = true;
+                    inId = false;
+                } else if (b == '"' && fieldStart) {
+                    quoted = true;
+                    fieldStart = false;
+                } else if (inId) {
+                    fieldStart = false;
+                    if (b != '\r') hash = IdHashes.update(hash, b);
+                } else {
+                    // past the ID: only a line break or a quote opening a field matters
+                    while (i + 1 < read && bytes[i + 1] != '\n' && !(bytes[i + 1] == '"' && bytes[i] == ',')) i++;
+                    fieldStart = bytes[i] == ',';
+                }
+            }
+            last = bytes[read - 1];
+            offset += read;
+            buffer.clear();
+        }
+        if (lineStart < offset) endLine(header, lineStart, offset - (last == '\r' ? 1 : 0), hash);
+    }
+
+    // Records one line; returns false once the header has been seen
+    private boolean endLine(boolean header, long start, long end, long idHash) throws IOException {
+        if (end <= start) return header;  // blank line
+        if (end - start > Integer.MAX_VALUE - 8) throw new IOException("Line at offset " + start + " is too long");
+        if (header) {
+            // The header tells us the format, as in StudentTableApp.loadCSV
+            byte[] line = new byte[(int) (end - start)];
+            channel.read(ByteBuffer.wrap(line), start);
+            try (CsvTokenizer csv = new CsvTokenizer(new ByteArrayInputStream(line), line.length + 1)) {
+                splitName = csv.next() && csv.fieldCount() > 3;
+            }
+            return false;
+        }
+        if (fileRows == starts.length) {
+            starts = Arrays.copyOf(starts, fileRows * 2);
+            lengths = Arrays.copyOf(lengths, fileRows * 2);
+            idHashes = Arrays.copyOf(idHashes, fileRows * 2);
+        }
+        starts[fileRows] = start;
+        lengths[fileRows] = (int) (end - start);
+        idHashes[fileRows] = idHash;
+        fileRows++;
+        return false;
+    }
+
+    // Multiset of 64-bit ID hashes in an open-addressing long[]: 8 to 16
+    // bytes per row instead of a String and a HashMap entry. Two different
+    // IDs share a hash with odds of about 2^-64 per pair.
+    static final class IdHashes {
+        static final long SEED = 0xcbf29ce484222325L;  // FNV-1a 64
+        private static final long PRIME = 0x100000001b3L;
+
+        private long[] table;                        // 0 marks an empty cell
+        private int count;
+
+        IdHashes(int expected) {
+            table = new long[Math.max(16, Integer.highestOneBit(Math.max(1, expected) * 3) * 2)];
+        }
+
+        static long update(long hash, byte b) {
+            return (hash ^ (b & 0xff)) * PRIME;
+        }
+
+        static long hash(String id) {
+            long h = SEED;
+            for (byte b : id.getBytes(StandardCharsets.UTF_8)) h = update(h, b);
+            return h;
+        }
+
+        void add(long hash) {
+            if (2 * (count + 1) > table.length) rehash(table.length * 2);
+            insert(table, key(hash));
+            count++;
+        }
+
+        boolean contains(long hash) {
+            long key = key(hash);
+            for (int i = index(key, table.length); table[i] != 0; i = (i + 1) & (table.length - 1)) {
+                if (table[i] == key) return true;
+            }
+            return false;
+        }
+
+        // Removes one occurrence; the following cells of the run are shifted
+        // back so lookups never need tombstones
+        void remove(long hash) {
+            long key = key(hash);
+            int mask = table.length - 1;
+            int i = index(key, table.length);
+            while (table[i] != key) {
+                if (table[i] == 0) return;
+                i = (i + 1) & mask;
+            }
+            table[i] = 0;
+            count--;
+            for (int j = (i + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+                int home = index(table[j], table.length);
+                // move j back into the hole when its home is not inside (i, j]
+                if (((j - home) & mask) >= ((j - i) & mask)) {
+                    table[i] = table[j];
+                    table[j] = 0;
+                    i = j;
+                }
+            }
+        }
+
+        private static long key(long hash) {
+            return hash == 0 ? 1 : hash;
+        }
+
+        private static int index(long key, int length) {
+            int h = (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & (length - 1);
+        }
+
+        private static void insert(long[] table, long key) {
+            int i = index(key, table.length);
+            while (table[i] != 0) i = (i + 1) & (table.length - 1);
+            table[i] = key;
+        }
+
+        private void rehash(int capacity) {
+            long[] old = table;
+            table = new long[capacity];
+            for (long key : old) {
+                if (key != 0) insert(table, key);
+            }
+        }
+    }
+}
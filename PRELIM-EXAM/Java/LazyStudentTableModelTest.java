@@ -0,0 +1,70 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Checks that LazyStudentTableModel splits a student CSV into the same rows
+// as the in-memory load, which reads records with CsvTokenizer: stray quotes
+// inside a field, quoted names holding commas, escaped quotes and line
+// breaks, quoted IDs and CRLF endings, over more than one 1 MB read chunk.
+// Every lazy row must show the ID and name of the matching record, and every
+// ID must be found through the lazy model's ID hashes.
+// Usage: java LazyStudentTableModelTest [rows]   (default 60,000 rows)
+public class LazyStudentTableModelTest {
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 60_000;
+        Path file = Files.createTempFile("lazy-students", ".csv");
+        file.toFile().deleteOnExit();
+        generate(file, rows);
+
+        // What the in-memory load sees: StudentTableApp.CsvLoader's loop, ID,Name,Grades layout
+        List<String[]> records = new ArrayList<>();
+        try (CsvTokenizer csv = new CsvTokenizer(new FileInputStream(file.toFile()))) {
+            csv.next();
+            while (csv.next()) {
+                if (csv.fieldCount() <= 2) continue;
+                for (int i = 2; i < csv.fieldCount(); i++) csv.parseDouble(i);  // every grade is valid here
+                records.add(new String[]{csv.getString(0), csv.getString(1)});
+            }
+        }
+        check(records.size() == rows, "in-memory rows: " + records.size() + ", expected " + rows);
+
+        try (LazyStudentTableModel lazy = new LazyStudentTableModel(file)) {
+            check(lazy.getRowCount() == records.size(),
+                  "lazy rows: " + lazy.getRowCount() + ", in-memory rows: " + records.size());
+            for (int r = 0; r < records.size(); r++) {
+                String[] want = records.get(r);
+                check(want[0].equals(lazy.getValueAt(r, 0)) && want[1].equals(lazy.getValueAt(r, 1)),
+                      "row " + r + ": " + lazy.getValueAt(r, 0) + " / " + lazy.getValueAt(r, 1)
+                      + ", expected " + want[0] + " / " + want[1]);
+                check(lazy.containsId(want[0]), "row " + r + ": ID " + want[0] + " not found by hash");
+            }
+        }
+        System.out.printf("OK: %,d rows, lazy and in-memory models agree%n", rows);
+    }
+
+    // Cycles through awkward but valid rows; every ID is distinct
+    private static void generate(Path file, int rows) throws IOException {
+        try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(
+                new BufferedOutputStream(new FileOutputStream(file.toFile())), StandardCharsets.UTF_8))) {
+            pw.print("ID,Name,Grades\n");
+            for (int i = 0; i < rows; i++) {
+                switch (i % 7) {
+                    case 0: pw.print(i + ",Ann \"Bo," + (i % 100) + "\n"); break;                 // stray quote
+                    case 1: pw.print(i + ",\"Smith, \"\"Jo\"\"\",85,95\n"); break;                  // comma, escaped quotes
+                    case 2: pw.print("\"" + i + "\",\"Multi\nLine\",70\n"); break;                  // quoted ID, line break
+                    case 3: pw.print("\"" + i + "\"\"q\"x,Odd,60\n"); break;                        // escaped quote, text after the close
+                    case 4: pw.print(i + ",Eve\",80\r\n"); break;                                  // stray quote at the end, CRLF
+                    case 5: pw.print(i + ",\"\",75\n"); break;                                      // empty quoted name
+                    default: pw.print(i + ",Plain Name,88,91,79\n");
+                }
+            }
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,138 @@
+import java.util.Arrays;
+
+// Model rows kept in order of one key, ties in model order. When students are
+// added or deleted it is updated in place (a binary search and an array shift
+// for one row, a single merge for a batch) instead of sorting every row again.
+class SortedRowIndex {
+
+    // Compares the keys of two model rows
+    interface RowOrder {
+        int compare(int rowA, int rowB);
+    }
+
+    // Where a model row's key falls against a fixed target: <0 before, 0 on, >0 after
+    interface RowProbe {
+        int compareTo(int row);
+    }
+
+    private final RowOrder order;
+    private int[] rows;
+    private int size;
+
+    // Sorts rows 0..rowCount-1 once; after that the index follows the model
+    SortedRowIndex(RowOrder order, int rowCount) {
+        this.order = order;
+        rows = new int[Math.max(16, rowCount)];
+        for (int i = 0; i < rowCount; i++) rows[i] = i;
+        size = rowCount;
+        sort(rows, size);
+    }
+
+    int size() { return size; }
+
+    int get(int position) { return rows[position]; }
+
+    // First position whose row is not before the probe's target
+    int lowerBound(RowProbe probe) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (probe.compareTo(rows[mid]) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // First position whose row is after the probe's target
+    int upperBound(RowProbe probe) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (probe.compareTo(rows[mid]) <= 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Model rows first..last were inserted; the rows that were at first and below moved down
+    void inserted(int first, int last) {
+        int count = last - first + 1;
+        if (first < size) {
+            for (int i = 0; i < size; i++) {
+                if (rows[i] >= first) rows[i] += count;
+            }
+        }
+        if (size + count > rows.length) rows = Arrays.copyOf(rows, Math.max(size + count, rows.length * 2));
+
+        if (count == 1) {
+            int at = insertionPoint(first);
+            System.arraycopy(rows, at, rows, at + 1, size - at);
+            rows[at] = first;
+            size++;
+            return;
+        }
+        // A batch: sort it on its own, then merge from the back so nothing is overwritten
+        int[] added = new int[count];
+        for (int i = 0; i < count; i++) added[i] = first + i;
+        sort(added, count);
+        int i = size - 1, j = count - 1;
+        for (int k = size + count - 1; j >= 0; k--) {
+            rows[k] = i >= 0 && compare(rows[i], added[j]) > 0 ? rows[i--] : added[j--];
+        }
+        size += count;
+    }
+
+    // Model rows first..last were deleted; the rows below them moved up
+    void deleted(int first, int last) {
+        int count = last - first + 1, kept = 0;
+        for (int i = 0; i < size; i++) {
+            int row = rows[i];
+            if (row < first) rows[kept++] = row;
+            else if (row > last) rows[kept++] = row - count;
+        }
+        size = kept;
+    }
+
+    // Puts the first count entries of some model rows in this index's order
+    void sort(int[] values, int count) {
+        if (count > 1) mergeSort(values, new int[count], 0, count);
+    }
+
+    // ----- Internals -----
+    private int compare(int rowA, int rowB) {
+        int c = order.compare(rowA, rowB);
+        return c != 0 ? c : Integer.compare(rowA, rowB);
+    }
+
+    private int insertionPoint(int row) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(rows[mid], row) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private void mergeSort(int[] a, int[] buffer, int from, int to) {
+        if (to - from < 16) {                       // insertion sort for short runs
+            for (int i = from + 1; i < to; i++) {
+                int v = a[i], j = i - 1;
+                while (j >= from && compare(a[j], v) > 0) {
+                    a[j + 1] = a[j];
+                    j--;
+                }
+                a[j + 1] = v;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(a, buffer, from, mid);
+        mergeSort(a, buffer, mid, to);
+        if (compare(a[mid - 1], a[mid]) <= 0) return;  // already in order
+        System.arraycopy(a, from, buffer, from, to - from);
+        for (int i = from, j = mid, k = from; k < to; k++) {
+            a[k] = j >= to || (i < mid && compare(buffer[i], buffer[j]) <= 0) ? buffer[i++] : buffer[j++];
+        }
+    }
+}
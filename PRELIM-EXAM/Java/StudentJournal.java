@@ -0,0 +1,285 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+// Append-only log of the edits made since the student CSV was last written
+// in full, so an edit costs one small append instead of rewriting the file.
+// One record per line, tab-separated, ending in a CRC32 of the rest:
+//   A  id  name  grades     student added at the bottom
+//   D  id  name  row        student deleted (row is where it was)
+//   C  size  crc  mark      the CSV was rewritten with every edit before byte mark
+// Appends reach the OS at once and are fsynced in batches every SYNC_MILLIS,
+// so an application crash loses nothing and a power cut at most that long.
+// A torn last line fails its CRC and is dropped when the journal is read.
+class StudentJournal implements Closeable {
+
+    static final long SYNC_MILLIS = 100;
+
+    // One add or delete to apply on top of the CSV
+    static final class Entry {
+        final boolean add;
+        final String id, name, detail;  // detail: grades for an add, row for a delete
+
+        Entry(boolean add, String id, String name, String detail) {
+            this.add = add;
+            this.id = id;
+            this.name = name;
+            this.detail = detail;
+        }
+    }
+
+    // A full CSV written next to the real one, not yet moved into place
+    static final class Snapshot {
+        final Path temp;
+        final long size, crc;
+
+        Snapshot(Path temp, long size, long crc) {
+            this.temp = temp;
+            this.size = size;
+            this.crc = crc;
+        }
+
+        // Deletes the temporary file unless it was already moved into place
+        void discard() {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                // recover() sweeps it on the next start
+            }
+        }
+    }
+
+    interface CsvWriter {
+        void write(PrintWriter out) throws IOException;
+    }
+
+    private final Path path, csv;
+    private FileChannel channel;
+    private int records;                 // adds and deletes in the journal
+    private boolean syncScheduled;
+    private final ScheduledExecutorService syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "journal-sync");
+        t.setDaemon(true);
+        return t;
+    });
+
+    StudentJournal(Path path, Path csv) throws IOException {
+        this.path = path;
+        this.csv = csv;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    // Reads the journal left by the last run: the edits still to apply on top
+    // of the CSV. Finishes a rewrite that was interrupted after the new CSV
+    // was in place, cuts off a torn last record and deletes the temporary
+    // files of rewrites that never got there. Call before any new snapshot.
+    synchronized List<Entry> recover() throws IOException {
+        deleteStaleTemps();
+        byte[] bytes = Files.readAllBytes(path);
+        List<Entry> entries = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        long commitMark = -1, commitSize = -1, commitCrc = -1;
+        int valid = 0;
+        for (int start = 0, end; start < bytes.length; start = end + 1) {
+            end = start;
+            while (end < bytes.length && bytes[end] != '\n') end++;
+            if (end == bytes.length) break;                 // no line break: torn
+            String[] f = parse(new String(bytes, start, end - start, StandardCharsets.UTF_8));
+            if (f == null) break;
+            if (f[0].equals("C")) {
+                commitSize = Long.parseLong(f[1]);
+                commitCrc = Long.parseLong(f[2]);
+                commitMark = Long.parseLong(f[3]);
+            } else {
+                entries.add(new Entry(f[0].equals("A"), f[1], f[2], f[3]));
+                offsets.add((long) start);
+            }
+            valid = end + 1;
+        }
+        if (valid < bytes.length) channel.truncate(valid);
+
+        if (commitMark >= 0 && csvMatches(commitSize, commitCrc)) {
+            // The CSV already holds every edit before the mark
+            int first = 0;
+            while (first < offsets.size() && offsets.get(first) < commitMark) first++;
+            entries = new ArrayList<>(entries.subList(first, entries.size()));
+            dropBefore(commitMark);
+        } else if (commitMark >= 0) {
+            dropBefore(0);  // the rewrite never reached the CSV; forget its C record
+        }
+        records = entries.size();
+        channel.position(channel.size());
+        return entries;
+    }
+
+    void logAdd(String id, String name, String grades) throws IOException {
+        append("A", id, name, grades);
+    }
+
+    void logDelete(String id, String name, int row) throws IOException {
+        append("D", id, name, Integer.toString(row));
+    }
+
+    // Adds and deletes since the CSV was last written in full
+    synchronized int records() { return records; }
+
+    // Journal position; a snapshot taken now holds every edit before it
+    synchronized long mark() throws IOException {
+        return channel.size();
+    }
+
+    // Writes a full CSV to a temporary file next to the real one and fsyncs
+    // it. Safe to call off the EDT, as long as writer reads a copy of the data.
+    // The caller commits or discards the snapshot; on failure nothing is left.
+    static Snapshot writeSnapshot(Path csv, CsvWriter writer) throws IOException {
+        Path dir = csv.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(dir, csv.getFileName().toString(), ".tmp");
+        CRC32 crc = new CRC32();
+        try {
+            try (FileOutputStream fos = new FileOutputStream(temp.toFile());
+                 PrintWriter pw = new PrintWriter(new OutputStreamWriter(new BufferedOutputStream(
+                     new CheckedOutputStream(fos, crc), 1 << 16), StandardCharsets.UTF_8))) {
+                writer.write(pw);
+                pw.flush();
+                if (pw.checkError()) throw new IOException("Could not write " + temp);
+                fos.getFD().sync();
+            }
+            return new Snapshot(temp, Files.size(temp), crc.getValue());
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    // Puts the snapshot in place of the CSV and drops the edits it holds.
+    // The C record goes to disk first, so after a crash at any point recover()
+    // can tell whether the CSV is the old or the new one. If the move fails
+    // the snapshot is deleted; its edits are still in the journal.
+    synchronized void commit(Snapshot snapshot, long mark) throws IOException {
+        try {
+            writeLine("C", Long.toString(snapshot.size), Long.toString(snapshot.crc), Long.toString(mark));
+            channel.force(true);
+            Files.move(snapshot.temp, csv, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            snapshot.discard();
+        }
+        dropBefore(mark);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        syncer.shutdownNow();
+        if (channel.isOpen()) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    // ----- Internals -----
+    private synchronized void append(String kind, String id, String name, String detail) throws IOException {
+        writeLine(kind, id, name, detail);
+        records++;
+        if (!syncScheduled) {
+            syncScheduled = true;
+            syncer.schedule(this::sync, SYNC_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void sync() {
+        syncScheduled = false;
+        try {
+            if (channel.isOpen()) channel.force(false);
+        } catch (IOException e) {
+            e.printStackTrace();  // the data is with the OS; the next sync retries
+        }
+    }
+
+    private void writeLine(String kind, String a, String b, String c) throws IOException {
+        String payload = kind + '\t' + clean(a) + '\t' + clean(b) + '\t' + clean(c);
+        CRC32 crc = new CRC32();
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        crc.update(bytes);
+        ByteBuffer line = ByteBuffer.wrap((payload + '\t' + Long.toHexString(crc.getValue()) + '\n')
+                                          .getBytes(StandardCharsets.UTF_8));
+        while (line.hasRemaining()) channel.write(line, channel.size());
+    }
+
+    // Rewrites the journal without the bytes before mark and without C
+    // records, through a temporary file so a crash leaves one or the other
+    private void dropBefore(long mark) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        ByteArrayOutputStream kept = new ByteArrayOutputStream();
+        int count = 0;
+        for (int start = (int) Math.min(mark, bytes.length), end; start < bytes.length; start = end + 1) {
+            end = start;
+            while (end < bytes.length && bytes[end] != '\n') end++;
+            if (end == bytes.length) break;
+            if (bytes[start] == 'C') continue;
+            kept.write(bytes, start, end + 1 - start);
+            count++;
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+            kept.writeTo(out);
+            out.getFD().sync();
+        }
+        channel.close();
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        records = count;
+    }
+
+    // Snapshots (and journal rewrites) left behind by a run that stopped
+    // before moving them into place: <csv name>*.tmp next to the CSV
+    private void deleteStaleTemps() throws IOException {
+        Path dir = csv.toAbsolutePath().getParent();
+        String prefix = csv.getFileName().toString();
+        DirectoryStream.Filter<Path> stale = p -> {
+            String name = p.getFileName().toString();
+            return name.startsWith(prefix) && name.endsWith(".tmp") && Files.isRegularFile(p);
+        };
+        try (DirectoryStream<Path> temps = Files.newDirectoryStream(dir, stale)) {
+            for (Path temp : temps) Files.deleteIfExists(temp);
+        }
+    }
+
+    private boolean csvMatches(long size, long crc) throws IOException {
+        if (!Files.exists(csv) || Files.size(csv) != size) return false;
+        CRC32 actual = new CRC32();
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(csv)) {
+            for (int n; (n = in.read(buffer)) > 0; ) actual.update(buffer, 0, n);
+        }
+        return actual.getValue() == crc;
+    }
+
+    // Fields of a record line, or null when the line is damaged
+    private static String[] parse(String line) {
+        int cut = line.lastIndexOf('\t');
+        if (cut < 0) return null;
+        byte[] payload = line.substring(0, cut).getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if (!Long.toHexString(crc.getValue()).equals(line.substring(cut + 1))) return null;
+        String[] fields = line.substring(0, cut).split("\t", -1);
+        if (fields.length != 4 || !(fields[0].equals("A") || fields[0].equals("D") || fields[0].equals("C"))) {
+            return null;
+        }
+        return fields;
+    }
+
+    // Tabs and line breaks would split the record
+    private static String clean(String field) {
+        return field.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
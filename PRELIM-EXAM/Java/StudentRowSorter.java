@@ -0,0 +1,261 @@
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Sorts the student table by ID, name or numeric average and narrows it to
+// the names starting with a search prefix. Each column has a SortedRowIndex,
+// built the first time that column is sorted or searched and from then on
+// updated as rows come and go, so neither an edit nor a keystroke in the
+// search box sorts the whole table again. (A TableRowSorter would compare the
+// formatted average strings, and sort every row after every change.)
+class StudentRowSorter extends RowSorter<StudentTableModel> {
+
+    private static final int ID = 0, NAME = 1, AVERAGE = 2;
+
+    private final StudentTableModel model;
+    private final StudentStore store;
+    private final SortedRowIndex[] indexes = new SortedRowIndex[3];  // by column, null until needed
+    private int modelRows;
+    private List<SortKey> sortKeys = Collections.emptyList();
+    private String prefix = "";
+
+    private int[] viewToModel;   // null: every row in model order
+    private int viewRows;
+    private int[] modelToView;   // worked out from viewToModel when first asked for
+
+    StudentRowSorter(StudentTableModel model) {
+        this.model = model;
+        this.store = model.store();
+        modelRows = viewRows = model.getRowCount();
+    }
+
+    @Override
+    public StudentTableModel getModel() { return model; }
+
+    // ----- Sort keys (header clicks) -----
+    // Ascending first, then flips between ascending and descending
+    @Override
+    public void toggleSortOrder(int column) {
+        SortOrder order = SortOrder.ASCENDING;
+        if (!sortKeys.isEmpty() && sortKeys.get(0).getColumn() == column
+                && sortKeys.get(0).getSortOrder() == SortOrder.ASCENDING) {
+            order = SortOrder.DESCENDING;
+        }
+        setSortKeys(List.of(new SortKey(column, order)));
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() { return sortKeys; }
+
+    // Only the first key is used; ties stay in model order
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        List<SortKey> newKeys = keys == null || keys.isEmpty() ? Collections.emptyList() : List.of(keys.get(0));
+        if (!newKeys.isEmpty() && (newKeys.get(0).getColumn() < 0 || newKeys.get(0).getColumn() >= indexes.length)) {
+            throw new IllegalArgumentException("Invalid sort column " + newKeys.get(0).getColumn());
+        }
+        if (newKeys.equals(sortKeys)) return;
+        sortKeys = newKeys;
+        fireSortOrderChanged();
+        refresh(true);
+    }
+
+    // ----- Name search -----
+    // Shows only the students whose name starts with prefix, ignoring case; "" shows all
+    void setNamePrefix(String prefix) {
+        String p = prefix == null ? "" : prefix;
+        if (p.equals(this.prefix)) return;
+        this.prefix = p;
+        refresh(true);
+    }
+
+    // ----- Row mapping -----
+    @Override
+    public int convertRowIndexToModel(int index) {
+        if (index < 0 || index >= viewRows) throw new IndexOutOfBoundsException("Invalid index " + index);
+        return viewToModel == null ? index : viewToModel[index];
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        if (index < 0 || index >= modelRows) throw new IndexOutOfBoundsException("Invalid index " + index);
+        if (viewToModel == null) return index;
+        if (modelToView == null) {
+            modelToView = new int[modelRows];
+            Arrays.fill(modelToView, -1);
+            for (int i = 0; i < viewRows; i++) modelToView[viewToModel[i]] = i;
+        }
+        return modelToView[index];
+    }
+
+    @Override
+    public int getViewRowCount() { return viewRows; }
+
+    @Override
+    public int getModelRowCount() { return modelRows; }
+
+    // ----- Model changes (passed on by the JTable) -----
+    @Override
+    public void modelStructureChanged() {
+        allRowsChanged();
+    }
+
+    @Override
+    public void allRowsChanged() {
+        modelRows = model.getRowCount();
+        Arrays.fill(indexes, null);
+        refresh(false);
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+        modelRows = model.getRowCount();
+        for (SortedRowIndex index : indexes) {
+            if (index != null) index.inserted(firstRow, endRow);
+        }
+        refresh(false);
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+        modelRows = model.getRowCount();
+        for (SortedRowIndex index : indexes) {
+            if (index != null) index.deleted(firstRow, endRow);
+        }
+        refresh(false);
+    }
+
+    // The model never changes a student in place; if it did, the keys may have moved
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+        allRowsChanged();
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+        allRowsChanged();
+    }
+
+    // ----- Internals -----
+    // Works out the view again from the indexes. A model change that leaves
+    // the view in model order needs no event: the table already has the rows.
+    private void refresh(boolean always) {
+        int[] last = viewToModel;
+        int lastRows = viewRows;
+        update();
+        if (!always && last == null && viewToModel == null) return;
+        if (last == null) {
+            last = new int[lastRows];
+            for (int i = 0; i < lastRows; i++) last[i] = i;
+        }
+        fireRowSorterChanged(last);
+    }
+
+    private void update() {
+        modelToView = null;
+        SortKey key = sortKeys.isEmpty() ? null : sortKeys.get(0);
+        boolean sorted = key != null && key.getSortOrder() != SortOrder.UNSORTED;
+        boolean descending = sorted && key.getSortOrder() == SortOrder.DESCENDING;
+
+        if (prefix.isEmpty()) {
+            if (!sorted) {
+                viewToModel = null;
+                viewRows = modelRows;
+                return;
+            }
+            SortedRowIndex index = index(key.getColumn());
+            viewRows = index.size();
+            viewToModel = new int[viewRows];
+            for (int i = 0; i < viewRows; i++) viewToModel[i] = index.get(descending ? viewRows - 1 - i : i);
+            return;
+        }
+
+        // The matching names are one run of the name index
+        SortedRowIndex names = index(NAME);
+        SortedRowIndex.RowProbe probe = row -> comparePrefix(store.name(row), prefix);
+        int from = names.lowerBound(probe), to = names.upperBound(probe);
+        viewRows = to - from;
+        viewToModel = new int[viewRows];
+        if (sorted && key.getColumn() != NAME && viewRows > modelRows / 16) {
+            // Many matches: walk the sort column's index and keep the marked rows
+            boolean[] match = new boolean[modelRows];
+            for (int i = from; i < to; i++) match[names.get(i)] = true;
+            SortedRowIndex index = index(key.getColumn());
+            for (int i = 0, n = 0; n < viewRows; i++) {
+                if (match[index.get(i)]) viewToModel[n++] = index.get(i);
+            }
+        } else {
+            for (int i = 0; i < viewRows; i++) viewToModel[i] = names.get(from + i);
+            if (!sorted) Arrays.sort(viewToModel);
+            else if (key.getColumn() != NAME) index(key.getColumn()).sort(viewToModel, viewRows);
+        }
+        if (descending) {
+            for (int i = 0, j = viewRows - 1; i < j; i++, j--) {
+                int t = viewToModel[i];
+                viewToModel[i] = viewToModel[j];
+                viewToModel[j] = t;
+            }
+        }
+    }
+
+    private SortedRowIndex index(int column) {
+        if (indexes[column] == null) {
+            SortedRowIndex.RowOrder order;
+            switch (column) {
+                case ID: order = (a, b) -> compareIds(store.id(a), store.id(b)); break;
+                case NAME: order = (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(store.name(a), store.name(b)); break;
+                default: order = (a, b) -> Double.compare(store.average(a), store.average(b));
+            }
+            indexes[column] = new SortedRowIndex(order, modelRows);
+        }
+        return indexes[column];
+    }
+
+    // All-digit IDs come first, by value ("9" before "10"); the rest as text
+    static int compareIds(String a, String b) {
+        boolean numericA = isDigits(a), numericB = isDigits(b);
+        if (numericA != numericB) return numericA ? -1 : 1;
+        if (numericA) {
+            int za = leadingZeros(a), zb = leadingZeros(b);
+            int byLength = Integer.compare(a.length() - za, b.length() - zb);
+            if (byLength != 0) return byLength;
+            for (int i = 0; i < a.length() - za; i++) {
+                int byDigit = a.charAt(za + i) - b.charAt(zb + i);
+                if (byDigit != 0) return byDigit;
+            }
+        }
+        return a.compareTo(b);
+    }
+
+    // 0 when name starts with prefix, else the sign of name against it, with
+    // the same case folding as String.CASE_INSENSITIVE_ORDER
+    static int comparePrefix(String name, String prefix) {
+        int n = Math.min(name.length(), prefix.length());
+        for (int i = 0; i < n; i++) {
+            char a = fold(name.charAt(i)), b = fold(prefix.charAt(i));
+            if (a != b) return a - b;
+        }
+        return name.length() >= prefix.length() ? 0 : -1;
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static boolean isDigits(String s) {
+        if (s.isEmpty()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
+    private static int leadingZeros(String s) {
+        int i = 0;
+        while (i < s.length() - 1 && s.charAt(i) == '0') i++;
+        return i;
+    }
+}
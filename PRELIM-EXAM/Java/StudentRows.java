@@ -0,0 +1,25 @@
+import javax.swing.table.TableModel;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+// What StudentTableApp needs from its table model, whether every student is
+// held in memory (StudentTableModel) or read from the file on demand
+// (LazyStudentTableModel).
+interface StudentRows extends TableModel {
+
+    boolean containsId(String id);
+
+    // Adds a student at the bottom; throws IllegalArgumentException for a used ID
+    void addStudent(String id, String name, double[] grades);
+
+    // Adds a student even when the ID is used, for replaying the journal
+    void addAllowingDuplicate(String id, String name, double[] grades);
+
+    void removeRow(int row);
+
+    // Row of the student with this ID and name, trying hint first; -1 if none
+    int findRow(String id, String name, int hint);
+
+    // Writes every row as ID,Name,Grades CSV
+    void writeCsv(PrintWriter out) throws IOException;
+}
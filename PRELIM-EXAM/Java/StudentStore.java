@@ -0,0 +1,237 @@
+import java.util.Arrays;
+import java.util.HashMap;
+
+// Typed in-memory table of students. Each student lives in a slot: the ID and
+// name as Strings, every grade in a primitive double[] column and the average
+// computed once on insert. A hash index maps ID to slot, so duplicate checks
+// and lookups by ID are O(1) however many students are loaded. Rows are the
+// table order and hold slot numbers, so deleting a row only shifts an int[].
+class StudentStore {
+
+    private final HashMap<String, Integer> slotById = new HashMap<>();
+    private int[] nextSameId = new int[16];   // MOCK_DATA.csv reuses some IDs; they are chained here
+
+    private String[] ids = new String[16];
+    private String[] names = new String[16];
+    private double[][] grades = new double[0][];  // grades[column][slot], NaN past the student's count
+    private int[] gradeCounts = new int[16];
+    private double[] averages = new double[16];
+    private int slots;                             // slots ever used
+    private int[] free = new int[16];              // slots of deleted students, reused first
+    private int freeCount;
+
+    private int[] rows = new int[16];              // slot of each row, in table order
+    private int size;
+
+    int size() { return size; }
+
+    // Widest grade list so far; columns past a student's own count are NaN
+    int gradeColumns() { return grades.length; }
+
+    boolean contains(String id) {
+        return slotById.containsKey(id);
+    }
+
+    // Slot of the student with this ID, -1 if there is none
+    int slotOf(String id) {
+        Integer slot = slotById.get(id);
+        return slot == null ? -1 : slot;
+    }
+
+    // Adds a student at the end of the table. Throws IllegalArgumentException
+    // when the ID is already used.
+    int add(String id, String name, double[] studentGrades, int count) {
+        if (slotById.containsKey(id)) throw new IllegalArgumentException("Student ID " + id + " already exists");
+        return insert(id, name, studentGrades, count);
+    }
+
+    // Same as add, but keeps a student whose ID is already used, as loading
+    // the shipped MOCK_DATA.csv needs (lookups return the first one)
+    int addAllowingDuplicate(String id, String name, double[] studentGrades, int count) {
+        return insert(id, name, studentGrades, count);
+    }
+
+    private int insert(String id, String name, double[] studentGrades, int count) {
+        if (count <= 0) throw new IllegalArgumentException("Student " + id + " has no grades");
+        int slot = freeCount > 0 ? free[--freeCount] : newSlot();
+        if (count > grades.length) widen(count);
+
+        ids[slot] = id;
+        names[slot] = name;
+        gradeCounts[slot] = count;
+        double sum = 0;
+        for (int c = 0; c < grades.length; c++) {
+            double g = c < count ? studentGrades[c] : Double.NaN;
+            grades[c][slot] = g;
+            if (c < count) sum += g;
+        }
+        averages[slot] = sum / count;
+
+        Integer first = slotById.putIfAbsent(id, slot);
+        if (first == null) {
+            nextSameId[slot] = -1;
+        } else {                                    // append to the end of the ID chain
+            int s = first;
+            while (nextSameId[s] >= 0) s = nextSameId[s];
+            nextSameId[s] = slot;
+            nextSameId[slot] = -1;
+        }
+
+        if (size == rows.length) rows = Arrays.copyOf(rows, size * 2);
+        rows[size++] = slot;
+        return slot;
+    }
+
+    // Removes the student shown at row; the rows below move up by one
+    void removeRow(int row) {
+        checkRow(row);
+        int slot = rows[row];
+        System.arraycopy(rows, row + 1, rows, row, size - row - 1);
+        size--;
+        unlink(slot);
+        ids[slot] = null;
+        names[slot] = null;
+        if (freeCount == free.length) free = Arrays.copyOf(free, freeCount * 2);
+        free[freeCount++] = slot;
+    }
+
+    // Drops every student, keeping the allocated arrays
+    void clear() {
+        slotById.clear();
+        Arrays.fill(ids, 0, slots, null);
+        Arrays.fill(names, 0, slots, null);
+        slots = 0;
+        freeCount = 0;
+        size = 0;
+    }
+
+    // Independent copy, e.g. to write out on another thread while this one changes
+    StudentStore copy() {
+        StudentStore copy = new StudentStore();
+        copy.slotById.putAll(slotById);
+        copy.nextSameId = nextSameId.clone();
+        copy.ids = ids.clone();
+        copy.names = names.clone();
+        copy.grades = new double[grades.length][];
+        for (int c = 0; c < grades.length; c++) copy.grades[c] = grades[c].clone();
+        copy.gradeCounts = gradeCounts.clone();
+        copy.averages = averages.clone();
+        copy.slots = slots;
+        copy.free = free.clone();
+        copy.freeCount = freeCount;
+        copy.rows = rows.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    // Row of the student with this ID and name, -1 if there is none. IDs can
+    // repeat in MOCK_DATA.csv, so the name tells those apart.
+    int findRow(String id, String name) {
+        Integer first = slotById.get(id);
+        for (int slot = first == null ? -1 : first; slot >= 0; slot = nextSameId[slot]) {
+            if (names[slot].equals(name)) return rowOf(slot);
+        }
+        return -1;
+    }
+
+    // Table row of the student in slot, O(size)
+    int rowOf(int slot) {
+        for (int row = 0; row < size; row++) {
+            if (rows[row] == slot) return row;
+        }
+        return -1;
+    }
+
+    // ----- Row accessors (table order) -----
+    int slot(int row) { checkRow(row); return rows[row]; }
+
+    String id(int row) { return ids[slot(row)]; }
+
+    String name(int row) { return names[slot(row)]; }
+
+    double average(int row) { return averages[slot(row)]; }
+
+    int gradeCount(int row) { return gradeCounts[slot(row)]; }
+
+    double grade(int row, int column) {
+        int slot = slot(row);
+        if (column < 0 || column >= gradeCounts[slot]) {
+            throw new IndexOutOfBoundsException("Grade " + column + " of " + gradeCounts[slot]);
+        }
+        return grades[column][slot];
+    }
+
+    // Grades as they are saved: comma-separated, whole numbers without ".0"
+    String gradesText(int row) {
+        int slot = slot(row);
+        StringBuilder sb = new StringBuilder();
+        for (int c = 0; c < gradeCounts[slot]; c++) {
+            if (c > 0) sb.append(',');
+            appendGrade(sb, grades[c][slot]);
+        }
+        return sb.toString();
+    }
+
+    static String formatGrades(double[] studentGrades) {
+        StringBuilder sb = new StringBuilder();
+        for (int c = 0; c < studentGrades.length; c++) {
+            if (c > 0) sb.append(',');
+            appendGrade(sb, studentGrades[c]);
+        }
+        return sb.toString();
+    }
+
+    private static void appendGrade(StringBuilder sb, double g) {
+        if (g == Math.rint(g) && Math.abs(g) < 1e15) sb.append((long) g);
+        else sb.append(g);
+    }
+
+    // One grade column in table order, NaN where a student has fewer grades
+    double[] column(int column) {
+        double[] values = new double[size];
+        double[] source = grades[column];
+        for (int row = 0; row < size; row++) values[row] = source[rows[row]];
+        return values;
+    }
+
+    // ----- Internals -----
+    private int newSlot() {
+        if (slots == ids.length) {
+            int capacity = slots * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            gradeCounts = Arrays.copyOf(gradeCounts, capacity);
+            averages = Arrays.copyOf(averages, capacity);
+            nextSameId = Arrays.copyOf(nextSameId, capacity);
+            for (int c = 0; c < grades.length; c++) grades[c] = Arrays.copyOf(grades[c], capacity);
+        }
+        return slots++;
+    }
+
+    private void widen(int columns) {
+        int old = grades.length;
+        grades = Arrays.copyOf(grades, columns);
+        for (int c = old; c < columns; c++) {
+            grades[c] = new double[ids.length];
+            Arrays.fill(grades[c], Double.NaN);
+        }
+    }
+
+    // Takes slot out of its ID chain, promoting the next duplicate if it was first
+    private void unlink(int slot) {
+        String id = ids[slot];
+        int first = slotById.get(id);
+        if (first == slot) {
+            if (nextSameId[slot] >= 0) slotById.put(id, nextSameId[slot]);
+            else slotById.remove(id);
+            return;
+        }
+        int s = first;
+        while (nextSameId[s] != slot) s = nextSameId[s];
+        nextSameId[s] = nextSameId[slot];
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+    }
+}
@@ -1,12 +1,16 @@
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.text.AbstractDocument;
-import javax.swing.text.AttributeSet;
-import javax.swing.text.BadLocationException;
-import javax.swing.text.DocumentFilter;
 import java.awt.*;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 /* 
 Author: Kristine Bermudo 23-1260-868
@@ -14,24 +18,65 @@ Author: Kristine Bermudo 23-1260-868
 
 public class StudentTableApp extends JFrame {
 
-    private DefaultTableModel model;
+    private final StudentStore store = new StudentStore();
+    private StudentRows model;
     private JTable table;
+    private StudentRowSorter sorter;   // null when the model reads from the file
+    private JTextField searchField;
+    private JLabel matchLabel;
+    private JTextArea statsArea;
+    private JButton statsButton, exportButton;
+    private GradeStatistics stats;     // last computed, for export
+    private String[] gradeNames;       // grade column headers, if the CSV had them
     private JTextField idField, nameField, gradeField;
     private JButton addButton, deleteButton;
+    private JProgressBar progressBar;
+    private boolean loading;       // background load still running
+    private StudentJournal journal;                        // null if it could not be opened
+    private List<StudentJournal.Entry> unreplayed = List.of(); // last run's edits, applied once loaded
+    private SwingWorker<StudentJournal.Snapshot, Void> compaction;  // background rewrite of the CSV, null if none
+    private boolean edited;
 
     private final String DEFAULT_CSV = "/MOCK_DATA.csv";  // bundled in resources
     private final String DATA_CSV = "student_data.csv";   // writable CSV
+    // Larger files are shown through LazyStudentTableModel instead of being loaded
+    private static final long LAZY_THRESHOLD = 16L << 20;
+    // Journaled edits before the CSV is rewritten in the background
+    private static final int COMPACT_RECORDS = 1000;
 
     public StudentTableApp() {
         this.setTitle("Records - Kristine Bermudo 23-1260-868");
-        setSize(900, 500);
+        setSize(1250, 550);
         setLocationRelativeTo(null);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
         // ----- Table Model -----
-        model = new DefaultTableModel();
-        // Add a hidden `Grades` column to store the raw comma-separated grades
-        model.setColumnIdentifiers(new String[]{"ID", "Name", "Average Grade", "Grades"});
+        // The model is only a view; the students and their grades live in the
+        // store, or stay in the file when it is too large to load
+        File file = prepareCSV();
+        if (file.length() > LAZY_THRESHOLD) {
+            try {
+                model = new LazyStudentTableModel(file.toPath());
+            } catch (IOException e) {
+                JOptionPane.showMessageDialog(this, "Error reading CSV: " + e.getMessage());
+            }
+        }
+        if (model == null) model = new StudentTableModel(store);
+
+        // ----- Journal of the edits since the CSV was last written -----
+        try {
+            journal = new StudentJournal(Paths.get(DATA_CSV + ".journal"), file.toPath());
+            unreplayed = journal.recover();
+        } catch (IOException e) {
+            journal = null;
+            JOptionPane.showMessageDialog(this, "Error opening the edit journal: " + e.getMessage()
+                                                + "\nEdits will be saved when the window closes.");
+        }
+        // Write everything back on the way out, so the next start has nothing to replay
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) { closeData(); }
+        });
 
         table = new JTable(model);
         table.setRowHeight(25);
@@ -45,11 +90,60 @@ public class StudentTableApp extends JFrame {
         JScrollPane scrollPane = new JScrollPane(table);
         add(scrollPane, BorderLayout.CENTER);
 
-        // Hide the raw Grades column from the table view but keep it in the model
-        // (remove from view preserves data in the TableModel)
-        if (table.getColumnModel().getColumnCount() > 3) {
-            table.removeColumn(table.getColumnModel().getColumn(3));
+        // ----- Sorting (header clicks) and name search -----
+        // Sorted indexes over the store, kept up to date as rows are added and deleted
+        searchField = new JTextField(20);
+        searchField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        matchLabel = new JLabel();
+        if (model instanceof StudentTableModel) {
+            sorter = new StudentRowSorter((StudentTableModel) model);
+            table.setRowSorter(sorter);
+            sorter.addRowSorterListener(e -> updateMatchLabel());
+            searchField.getDocument().addDocumentListener(new DocumentListener() {
+                public void insertUpdate(DocumentEvent e) { search(); }
+                public void removeUpdate(DocumentEvent e) { search(); }
+                public void changedUpdate(DocumentEvent e) { search(); }
+            });
+        } else {
+            searchField.setEnabled(false);
+            searchField.setToolTipText("Search and sorting need the students loaded in memory");
+        }
+        JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        searchPanel.add(new JLabel("Search name:"));
+        searchPanel.add(searchField);
+        searchPanel.add(matchLabel);
+
+        // ----- Progress Bar (top), shown while the CSV loads -----
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.add(searchPanel, BorderLayout.CENTER);
+        topPanel.add(progressBar, BorderLayout.SOUTH);
+        add(topPanel, BorderLayout.NORTH);
+
+        // ----- Statistics Panel (right) -----
+        statsArea = new JTextArea();
+        statsArea.setEditable(false);
+        statsArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        statsButton = new JButton("Statistics");
+        exportButton = new JButton("Export...");
+        exportButton.setEnabled(false);
+        if (!(model instanceof StudentTableModel)) {
+            statsButton.setEnabled(false);
+            statsButton.setToolTipText("Statistics need the students loaded in memory");
         }
+        JPanel statsButtons = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        statsButtons.add(statsButton);
+        statsButtons.add(exportButton);
+        JScrollPane statsScroll = new JScrollPane(statsArea);
+        statsScroll.setPreferredSize(new Dimension(340, 0));
+        JPanel statsPanel = new JPanel(new BorderLayout());
+        statsPanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        statsPanel.add(statsButtons, BorderLayout.NORTH);
+        statsPanel.add(statsScroll, BorderLayout.CENTER);
+        add(statsPanel, BorderLayout.EAST);
 
         // ----- Input Panel (bottom) -----
         JPanel inputPanel = new JPanel(new GridBagLayout());
@@ -76,38 +170,10 @@ public class StudentTableApp extends JFrame {
 
         // ----- Input Filters -----
         // ID: digits only
-        ((AbstractDocument) idField.getDocument()).setDocumentFilter(new DocumentFilter() {
-            @Override
-            public void insertString(FilterBypass fb, int offset, String string, AttributeSet attr) throws BadLocationException {
-                StringBuilder sb = new StringBuilder(fb.getDocument().getText(0, fb.getDocument().getLength()));
-                sb.insert(offset, string);
-                if (sb.toString().matches("\\d*")) super.insertString(fb, offset, string, attr);
-            }
-
-            @Override
-            public void replace(FilterBypass fb, int offset, int length, String text, AttributeSet attrs) throws BadLocationException {
-                StringBuilder sb = new StringBuilder(fb.getDocument().getText(0, fb.getDocument().getLength()));
-                sb.replace(offset, offset + length, text == null ? "" : text);
-                if (sb.toString().matches("\\d*")) super.replace(fb, offset, length, text, attrs);
-            }
-        });
+        ((AbstractDocument) idField.getDocument()).setDocumentFilter(InputFilters.only(InputFilters.DIGITS));
 
         // Name: letters and spaces only (no digits / special chars)
-        ((AbstractDocument) nameField.getDocument()).setDocumentFilter(new DocumentFilter() {
-            @Override
-            public void insertString(FilterBypass fb, int offset, String string, AttributeSet attr) throws BadLocationException {
-                StringBuilder sb = new StringBuilder(fb.getDocument().getText(0, fb.getDocument().getLength()));
-                sb.insert(offset, string);
-                if (sb.toString().matches("[a-zA-Z ]*")) super.insertString(fb, offset, string, attr);
-            }
-
-            @Override
-            public void replace(FilterBypass fb, int offset, int length, String text, AttributeSet attrs) throws BadLocationException {
-                StringBuilder sb = new StringBuilder(fb.getDocument().getText(0, fb.getDocument().getLength()));
-                sb.replace(offset, offset + length, text == null ? "" : text);
-                if (sb.toString().matches("[a-zA-Z ]*")) super.replace(fb, offset, length, text, attrs);
-            }
-        });
+        ((AbstractDocument) nameField.getDocument()).setDocumentFilter(InputFilters.only(InputFilters.LETTERS_AND_SPACES));
 
         addButton = new JButton("Add");
         addButton.setFont(buttonFont);
@@ -140,19 +206,32 @@ public class StudentTableApp extends JFrame {
         add(inputPanel, BorderLayout.SOUTH);
 
         // ----- Button Actions -----
-        addButton.addActionListener(e -> { addRow(); saveCSV(); });
-        deleteButton.addActionListener(e -> { deleteRow(); saveCSV(); });
+        addButton.addActionListener(e -> addRow());
+        deleteButton.addActionListener(e -> deleteRow());
+        statsButton.addActionListener(e -> computeStatistics());
+        exportButton.addActionListener(e -> exportStatistics());
 
         // ----- Load CSV -----
-        loadCSV();
+        if (model instanceof StudentTableModel) loadCSV(file);
+        else replayJournal();
+    }
+
+    // ----- Name search -----
+    private void search() {
+        sorter.setNamePrefix(searchField.getText().trim());
+    }
+
+    private void updateMatchLabel() {
+        int shown = sorter.getViewRowCount(), total = sorter.getModelRowCount();
+        matchLabel.setText(shown == total ? "" : String.format("%,d of %,d students", shown, total));
     }
 
-    // ----- Load CSV, skip first line automatically -----
-    private void loadCSV() {
+    // ----- Copy the bundled CSV on first run -----
+    private File prepareCSV() {
         File file = new File(DATA_CSV);
         if (!file.exists()) {
             try (InputStream is = getClass().getResourceAsStream(DEFAULT_CSV)) {
-                if (is == null) return;
+                if (is == null) return file;
                 try (OutputStream os = new FileOutputStream(file)) {
                     byte[] buffer = new byte[1024];
                     int len;
@@ -162,49 +241,288 @@ public class StudentTableApp extends JFrame {
                 }
             } catch (IOException e) { e.printStackTrace(); }
         }
+        return file;
+    }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            br.readLine(); // skip first line (header)
-            String line;
-            while ((line = br.readLine()) != null) {
-                // Try to support both old (ID,First,Last,Grades) and new (ID,Name,Grades) formats
-                String name = null;
-                String gradesField = null;
-
-                String[] parts = line.split(",", 4);
-                if (parts.length == 4) {
-                    // old format: First and Last name separate
-                    name = parts[1] + " " + parts[2];
-                    gradesField = parts[3];
-                } else {
-                    // try new format: ID,Name,Grades (grades may contain commas)
-                    parts = line.split(",", 3);
-                    if (parts.length >= 3) {
-                        name = parts[1];
-                        gradesField = parts[2];
+    // ----- Load CSV into the store in the background, skip first line automatically -----
+    // Rows show up in batches while the rest is parsed, so the table can be
+    // scrolled and edited straight away.
+    private void loadCSV(File file) {
+        if (!file.exists()) {
+            replayJournal();
+            return;
+        }
+        loading = true;
+        progressBar.setValue(0);
+        progressBar.setString("Loading " + file.getName() + "...");
+        progressBar.setVisible(true);
+
+        CsvLoader loader = new CsvLoader(file);
+        loader.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) progressBar.setValue((Integer) e.getNewValue());
+        });
+        loader.execute();
+    }
+
+    // Parses on a worker thread; the store is only touched on the EDT, in process()
+    private class CsvLoader extends SwingWorker<Integer, StudentTableModel.Batch> {
+        static final int BATCH_ROWS = 2000;
+
+        private final File file;
+        private String[] header;   // grade column names from a MOCK_DATA.csv style header
+
+        CsvLoader(File file) {
+            this.file = file;
+        }
+
+        // Returns the number of rows skipped because a grade was not a number
+        @Override
+        protected Integer doInBackground() throws IOException {
+            int skipped = 0;
+            long length = Math.max(1, file.length());
+            try (CsvTokenizer csv = new CsvTokenizer(new FileInputStream(file))) {
+                // The header tells us the format: MOCK_DATA.csv has separate first/last
+                // name columns (ID,First,Last,Grades...), writeCsv writes ID,Name,Grades
+                if (!csv.next()) return 0;
+                boolean splitName = csv.fieldCount() > 3;
+                int gradesFrom = splitName ? 3 : 2;
+                if (splitName) {
+                    header = new String[csv.fieldCount() - gradesFrom];
+                    for (int i = 0; i < header.length; i++) header[i] = csv.getString(gradesFrom + i);
+                }
+
+                StudentTableModel.Batch batch = new StudentTableModel.Batch();
+                while (csv.next()) {
+                    int count = csv.fieldCount() - gradesFrom;
+                    if (count <= 0) continue;
+                    double[] grades = new double[count];
+                    try {
+                        for (int i = 0; i < count; i++) grades[i] = csv.parseDouble(gradesFrom + i);
+                    } catch (NumberFormatException e) {
+                        skipped++;
+                        continue;
+                    }
+                    String name = splitName ? csv.getString(1) + " " + csv.getString(2) : csv.getString(1);
+                    batch.add(csv.getString(0), name, grades);
+
+                    if (batch.size() == BATCH_ROWS) {
+                        publish(batch);
+                        batch = new StudentTableModel.Batch();
+                        setProgress((int) Math.min(99, csv.position() * 100 / length));
                     }
                 }
+                publish(batch);
+            }
+            return skipped;
+        }
+
+        @Override
+        protected void process(java.util.List<StudentTableModel.Batch> batches) {
+            for (StudentTableModel.Batch batch : batches) ((StudentTableModel) model).append(batch);
+            progressBar.setString(String.format("Loading... %,d students", model.getRowCount()));
+        }
+
+        @Override
+        protected void done() {
+            loading = false;
+            progressBar.setVisible(false);
+            try {
+                int skipped = get();
+                gradeNames = header;
+                if (skipped > 0) {
+                    JOptionPane.showMessageDialog(StudentTableApp.this, skipped
+                        + " row(s) were skipped: grades must be numbers, separated by commas.");
+                }
+            } catch (Exception e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                JOptionPane.showMessageDialog(StudentTableApp.this, "Error reading CSV: " + cause.getMessage());
+            }
+            replayJournal();
+            computeStatistics();
+        }
+    }
+
+    // ----- Grade statistics for the whole class, worked out on a worker thread -----
+    // The columns are copied first, so the table can be edited meanwhile;
+    // the panel shows the class as it was when the button was pressed.
+    private void computeStatistics() {
+        if (!(model instanceof StudentTableModel) || loading) return;
+        statsButton.setEnabled(false);
+        statsArea.setText("Computing...");
+        GradeStatistics snapshot = new GradeStatistics(store, gradeNames);
+        new SwingWorker<GradeStatistics, Void>() {
+            @Override
+            protected GradeStatistics doInBackground() {
+                return snapshot.compute();
+            }
+
+            @Override
+            protected void done() {
+                statsButton.setEnabled(true);
+                try {
+                    stats = get();
+                    statsArea.setText(stats.summary());
+                    statsArea.setCaretPosition(0);
+                    exportButton.setEnabled(true);
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    statsArea.setText("Error computing statistics: " + cause);
+                }
+            }
+        }.execute();
+    }
+
+    // ----- Save the last statistics and the full ranking as CSV -----
+    private void exportStatistics() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("grade_statistics.csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File target = chooser.getSelectedFile();
+        GradeStatistics exported = stats;
+        exportButton.setEnabled(false);
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws IOException {
+                try (PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(target)))) {
+                    exported.writeCsv(pw);
+                    if (pw.checkError()) throw new IOException("Could not write " + target);
+                }
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                exportButton.setEnabled(true);
+                try {
+                    get();
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(StudentTableApp.this, "Error exporting statistics: " + cause.getMessage());
+                }
+            }
+        }.execute();
+    }
 
-                if (name != null && gradesField != null) {
-                    double avg = computeAverage(gradesField);
-                    model.addRow(new String[]{parts[0], name, String.format("%.2f", avg), gradesField});
+    // ----- Apply the edits journaled since the CSV was last written -----
+    private void replayJournal() {
+        int failed = 0;
+        for (StudentJournal.Entry entry : unreplayed) {
+            try {
+                if (entry.add) {
+                    String[] parts = entry.detail.split(",");
+                    double[] grades = new double[parts.length];
+                    for (int i = 0; i < parts.length; i++) grades[i] = Double.parseDouble(parts[i]);
+                    model.addAllowingDuplicate(entry.id, entry.name, grades);
+                } else {
+                    int row = model.findRow(entry.id, entry.name, Integer.parseInt(entry.detail));
+                    if (row >= 0) model.removeRow(row);
+                    else failed++;
                 }
+            } catch (NumberFormatException e) {
+                failed++;
             }
+        }
+        if (failed > 0) {
+            JOptionPane.showMessageDialog(this, failed + " journaled edit(s) could not be applied.");
+        }
+        unreplayed = List.of();
+    }
+
+    // ----- Record an edit: one append to the journal instead of rewriting the CSV -----
+    private void journalAdd(String id, String name, double[] grades) {
+        edited = true;
+        if (journal == null) return;
+        try {
+            journal.logAdd(id, name, StudentStore.formatGrades(grades));
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Error saving the edit: " + e.getMessage());
+        }
+        compactIfDue();
+    }
+
+    private void journalDelete(String id, String name, int row) {
+        edited = true;
+        if (journal == null) return;
+        try {
+            journal.logDelete(id, name, row);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Error saving the edit: " + e.getMessage());
+        }
+        compactIfDue();
+    }
+
+    // ----- Fold a long journal back into the CSV on a worker thread -----
+    // The worker writes a copy of the store, so editing carries on meanwhile;
+    // edits made during the write stay in the journal. Files shown through
+    // LazyStudentTableModel are only rewritten on exit.
+    private void compactIfDue() {
+        if (journal == null || journal.records() < COMPACT_RECORDS || loading || compaction != null
+                || !(model instanceof StudentTableModel)) {
+            return;
+        }
+        long mark;
+        try {
+            mark = journal.mark();
         } catch (IOException e) {
-            JOptionPane.showMessageDialog(this, "Error reading CSV: " + e.getMessage());
+            return;
+        }
+        StudentTableModel copy = new StudentTableModel(store.copy());
+        compaction = new SwingWorker<StudentJournal.Snapshot, Void>() {
+            @Override
+            protected StudentJournal.Snapshot doInBackground() throws IOException {
+                return StudentJournal.writeSnapshot(Paths.get(DATA_CSV), copy::writeCsv);
+            }
+
+            @Override
+            protected void done() {
+                if (compaction != this) return;  // closeData already dealt with it
+                compaction = null;
+                try {
+                    journal.commit(get(), mark);  // deletes the snapshot if it fails
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(StudentTableApp.this, "Error saving CSV: " + cause.getMessage());
+                }
+            }
+        };
+        compaction.execute();
+    }
+
+    // Waits for a running background rewrite and deletes its snapshot, which
+    // the rewrite on exit supersedes; otherwise its temporary file would
+    // outlive the JVM
+    private void abandonCompaction() {
+        SwingWorker<StudentJournal.Snapshot, Void> worker = compaction;
+        if (worker == null) return;
+        compaction = null;
+        try {
+            worker.get().discard();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // writeSnapshot removed its own file
         }
     }
 
-    // ----- Save table to CSV -----
-    private void saveCSV() {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(DATA_CSV))) {
-            pw.println("ID,Name,Grades");
-            for (int i = 0; i < model.getRowCount(); i++) {
-                String name = model.getValueAt(i, 1).toString();
-                // Save the raw grades (column index 3) so next load can recompute averages
-                String rawGrades = model.getValueAt(i, 3) != null ? model.getValueAt(i, 3).toString() : "";
-                pw.println(model.getValueAt(i, 0) + "," + name + "," + rawGrades);
+    // ----- Save table to CSV and close the journal (window closing) -----
+    // While still loading, the CSV is left alone: the journal already holds every edit.
+    private void closeData() {
+        abandonCompaction();
+        boolean pending = journal != null ? journal.records() > 0 : edited;
+        try {
+            if (pending && !loading) {
+                Path csv = Paths.get(DATA_CSV);
+                long mark = journal != null ? journal.mark() : 0;
+                StudentJournal.Snapshot snapshot = StudentJournal.writeSnapshot(csv, model::writeCsv);
+                try {
+                    if (model instanceof Closeable) ((Closeable) model).close(); // release the file before replacing it
+                    if (journal != null) journal.commit(snapshot, mark);
+                    else Files.move(snapshot.temp, csv, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    snapshot.discard();  // no-op once moved into place
+                }
             }
+            if (journal != null) journal.close();
         } catch (IOException e) {
             JOptionPane.showMessageDialog(this, "Error saving CSV: " + e.getMessage());
         }
@@ -221,33 +539,44 @@ public class StudentTableApp extends JFrame {
             return;
         }
 
-        double average = computeAverage(gradesText);
-        if (average < 0) return;
+        if (model.containsId(id)) {
+            JOptionPane.showMessageDialog(this, "A student with ID " + id + " already exists.");
+            return;
+        }
+
+        double[] grades = parseGrades(gradesText);
+        if (grades == null) return;
 
-        // Store the raw grades in the hidden 4th column so we can persist them
-        model.addRow(new String[]{id, fullName, String.format("%.2f", average), gradesText});
+        model.addStudent(id, fullName, grades);
+        journalAdd(id, fullName, grades);
 
         idField.setText(""); nameField.setText(""); gradeField.setText("");
     }
 
-    // ----- Compute average from comma-separated grades -----
-    private double computeAverage(String gradesText) {
+    // ----- Parse comma-separated grades, null (after telling the user) if one is not a number -----
+    private double[] parseGrades(String gradesText) {
         String[] parts = gradesText.split(",");
-        double sum = 0;
-        for (String p : parts) {
-            try { sum += Double.parseDouble(p.trim()); }
+        double[] grades = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            try { grades[i] = Double.parseDouble(parts[i].trim()); }
             catch (NumberFormatException e) {
                 JOptionPane.showMessageDialog(this, "Grades must be numbers, separated by commas.");
-                return -1;
+                return null;
             }
         }
-        return sum / parts.length;
+        return grades;
     }
 
     // ----- Delete Row -----
     private void deleteRow() {
         int selectedRow = table.getSelectedRow();
-        if (selectedRow != -1) model.removeRow(selectedRow);
+        if (selectedRow != -1) {
+            int modelRow = table.convertRowIndexToModel(selectedRow);  // the view may be sorted or searched
+            String id = model.getValueAt(modelRow, 0).toString();
+            String name = model.getValueAt(modelRow, 1).toString();
+            model.removeRow(modelRow);
+            journalDelete(id, name, modelRow);
+        }
         else JOptionPane.showMessageDialog(this, "Please select a row to delete.");
     }
 
@@ -0,0 +1,110 @@
+import javax.swing.table.AbstractTableModel;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+// Read-only Swing view of a StudentStore: no cell data of its own, every
+// value is looked up in the store when the table paints it. Changes go
+// through here so the table hears about them.
+class StudentTableModel extends AbstractTableModel implements StudentRows {
+
+    private static final String[] COLUMNS = {"ID", "Name", "Average Grade"};
+
+    private final StudentStore store;
+
+    StudentTableModel(StudentStore store) {
+        this.store = store;
+    }
+
+    StudentStore store() { return store; }
+
+    @Override
+    public int getRowCount() { return store.size(); }
+
+    @Override
+    public int getColumnCount() { return COLUMNS.length; }
+
+    @Override
+    public String getColumnName(int column) { return COLUMNS[column]; }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case 0: return store.id(row);
+            case 1: return store.name(row);
+            default: return String.format("%.2f", store.average(row));
+        }
+    }
+
+    @Override
+    public boolean containsId(String id) {
+        return store.contains(id);
+    }
+
+    @Override
+    public void addStudent(String id, String name, double[] grades) {
+        store.add(id, name, grades, grades.length);
+        fireTableRowsInserted(store.size() - 1, store.size() - 1);
+    }
+
+    @Override
+    public void addAllowingDuplicate(String id, String name, double[] grades) {
+        store.addAllowingDuplicate(id, name, grades, grades.length);
+        fireTableRowsInserted(store.size() - 1, store.size() - 1);
+    }
+
+    // Appends students parsed off the EDT; one table event per batch
+    void append(Batch batch) {
+        if (batch.size == 0) return;
+        int first = store.size();
+        for (int i = 0; i < batch.size; i++) {
+            store.addAllowingDuplicate(batch.ids[i], batch.names[i], batch.grades[i], batch.grades[i].length);
+        }
+        fireTableRowsInserted(first, store.size() - 1);
+    }
+
+    @Override
+    public void removeRow(int row) {
+        store.removeRow(row);
+        fireTableRowsDeleted(row, row);
+    }
+
+    @Override
+    public int findRow(String id, String name, int hint) {
+        if (hint >= 0 && hint < store.size() && store.id(hint).equals(id) && store.name(hint).equals(name)) {
+            return hint;
+        }
+        return store.findRow(id, name);
+    }
+
+    @Override
+    public void writeCsv(PrintWriter out) {
+        out.println("ID,Name,Grades");
+        for (int i = 0; i < store.size(); i++) {
+            // Save the grades themselves so the next load can recompute averages
+            out.println(store.id(i) + "," + store.name(i) + "," + store.gradesText(i));
+        }
+    }
+
+    // Students read by a background loader, handed to the EDT together.
+    // MOCK_DATA.csv has repeated IDs, so a file may; they are kept.
+    static final class Batch {
+        private String[] ids = new String[256];
+        private String[] names = new String[256];
+        private double[][] grades = new double[256][];
+        private int size;
+
+        void add(String id, String name, double[] studentGrades) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                names = Arrays.copyOf(names, size * 2);
+                grades = Arrays.copyOf(grades, size * 2);
+            }
+            ids[size] = id;
+            names[size] = name;
+            grades[size] = studentGrades;
+            size++;
+        }
+
+        int size() { return size; }
+    }
+}
@@ -22,6 +22,9 @@ public class AttendanceApp extends JFrame {
     private JTextField nameField, courseField, timeInField, signatureField;
     private JButton submitButton;
 
+    // A name made only of spaces is empty
+    private static final InputFilters.CharClass SPACES = InputFilters.CharClass.of(" ");
+
     public AttendanceApp() {
         // JFrame settings
         setTitle("Attendance Tracking App");
@@ -136,10 +139,9 @@ public class AttendanceApp extends JFrame {
      * Checks if all required fields are valid and enables/disables button
      */
     private void checkFormValidity() {
-        boolean valid = !nameField.getText().trim().isEmpty()
-                     && !courseField.getText().trim().isEmpty()
-                     && nameField.getText().matches("[a-zA-Z ]+")
-                     && courseField.getText().matches("[a-zA-Z ]+[0-9]+");
+        boolean valid = InputFilters.matches(nameField.getDocument(), InputFilters.LETTERS_AND_SPACES)
+                     && !InputFilters.matches(nameField.getDocument(), SPACES)
+                     && InputFilters.matches(courseField.getDocument(), InputFilters.LETTERS_AND_SPACES, InputFilters.DIGITS);
         submitButton.setEnabled(valid);
     }
 
@@ -156,14 +158,14 @@ public class AttendanceApp extends JFrame {
                     JOptionPane.ERROR_MESSAGE);
             return false;
         }
-        if(!name.matches("[a-zA-Z ]+")) {
+        if(!InputFilters.matches(name, InputFilters.LETTERS_AND_SPACES)) {
             JOptionPane.showMessageDialog(this,
                     "Name must contain letters only.",
                     "Input Error",
                     JOptionPane.ERROR_MESSAGE);
             return false;
         }
-        if(!course.matches("[a-zA-Z ]+[0-9]+")) {
+        if(!InputFilters.matches(course, InputFilters.LETTERS_AND_SPACES, InputFilters.DIGITS)) {
             JOptionPane.showMessageDialog(this,
                     "Course/Year format is invalid (example: BSIT 1).",
                     "Input Error",
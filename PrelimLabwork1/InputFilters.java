@@ -0,0 +1,178 @@
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.DocumentFilter;
+import javax.swing.text.Segment;
+
+// Text field filters and checks built from precompiled character classes
+// instead of regular expressions. A filter looks only at the text being typed
+// or pasted and never copies the document; a check reads the document in
+// place through a Segment. Either way a keystroke costs no regex compile and
+// no copy of the field, however long it is.
+// Each app that uses it keeps its own copy of this file.
+final class InputFilters {
+
+    static final CharClass DIGITS = CharClass.of("0-9");
+    static final CharClass LETTERS_AND_SPACES = CharClass.of("a-zA-Z ");
+
+    private InputFilters() {}
+
+    // A set of ASCII characters, written like the inside of a regex class: "a-zA-Z "
+    static final class CharClass {
+        private final long low, high;  // bit c of low for c < 64, bit c - 64 of high for c < 128
+
+        private CharClass(long low, long high) {
+            this.low = low;
+            this.high = high;
+        }
+
+        static CharClass of(String spec) {
+            long low = 0, high = 0;
+            for (int i = 0; i < spec.length(); i++) {
+                char from = spec.charAt(i), to = from;
+                if (i + 2 < spec.length() && spec.charAt(i + 1) == '-') {
+                    to = spec.charAt(i + 2);
+                    i += 2;
+                }
+                if (to >= 128 || from > to) throw new IllegalArgumentException("Bad character class: " + spec);
+                for (char c = from; c <= to; c++) {
+                    if (c < 64) low |= 1L << c;
+                    else high |= 1L << (c - 64);
+                }
+            }
+            return new CharClass(low, high);
+        }
+
+        boolean contains(char c) {
+            if (c < 64) return ((low >>> c) & 1) != 0;
+            return c < 128 && ((high >>> (c - 64)) & 1) != 0;
+        }
+
+        boolean containsAll(CharSequence s) {
+            for (int i = 0; i < s.length(); i++) {
+                if (!contains(s.charAt(i))) return false;
+            }
+            return true;
+        }
+    }
+
+    // ----- Keystroke filters -----
+
+    // Lets only characters of the class into the field. Deleting can't break
+    // that, so an edit is judged by the inserted text alone.
+    static DocumentFilter only(CharClass chars) {
+        return new DocumentFilter() {
+            @Override
+            public void insertString(FilterBypass fb, int offset, String string, AttributeSet attr) throws BadLocationException {
+                if (string != null && chars.containsAll(string)) super.insertString(fb, offset, string, attr);
+            }
+
+            @Override
+            public void replace(FilterBypass fb, int offset, int length, String text, AttributeSet attrs) throws BadLocationException {
+                if (text == null || chars.containsAll(text)) super.replace(fb, offset, length, text, attrs);
+            }
+        };
+    }
+
+    // Keeps the field empty or a whole number from min to max. The new value
+    // is accumulated from the text around the edit as it is read, stopping as
+    // soon as it passes max, so nothing is copied or parsed.
+    static DocumentFilter intRange(int min, int max) {
+        return new DocumentFilter() {
+            private final Segment segment = new Segment();
+
+            @Override
+            public void insertString(FilterBypass fb, int offset, String string, AttributeSet attr) throws BadLocationException {
+                if (string != null && accepts(fb.getDocument(), offset, 0, string)) super.insertString(fb, offset, string, attr);
+            }
+
+            @Override
+            public void replace(FilterBypass fb, int offset, int length, String text, AttributeSet attrs) throws BadLocationException {
+                if (accepts(fb.getDocument(), offset, length, text)) super.replace(fb, offset, length, text, attrs);
+            }
+
+            // Whether the document with [offset, offset + length) replaced by text is in range
+            private boolean accepts(Document doc, int offset, int length, String text) throws BadLocationException {
+                int inserted = text == null ? 0 : text.length();
+                if (doc.getLength() - length + inserted == 0) return true;
+                long value = read(doc, 0, offset, 0);
+                if (text != null) value = append(text, value);
+                value = read(doc, offset + length, doc.getLength() - offset - length, value);
+                return value >= min;
+            }
+
+            private long read(Document doc, int from, int count, long value) throws BadLocationException {
+                segment.setPartialReturn(true);
+                while (count > 0 && value >= 0) {
+                    doc.getText(from, count, segment);
+                    value = append(segment, value);
+                    from += segment.count;
+                    count -= segment.count;
+                }
+                return value;
+            }
+
+            // value with the digits of s after it, -1 once a char is not a digit or it passes max
+            private long append(CharSequence s, long value) {
+                for (int i = 0; i < s.length() && value >= 0; i++) {
+                    char c = s.charAt(i);
+                    if (!DIGITS.contains(c)) return -1;
+                    value = value * 10 + (c - '0');
+                    if (value > max) return -1;
+                }
+                return value;
+            }
+        };
+    }
+
+    // ----- Field checks -----
+
+    // Whether s is one or more characters of the class, like the regex [chars]+
+    static boolean matches(CharSequence s, CharClass chars) {
+        return scan(s, 0, chars, null) == 1;
+    }
+
+    // Whether s is a run of head characters then a run of tail characters,
+    // like the regex [head]+[tail]+. The two classes must not overlap.
+    static boolean matches(CharSequence s, CharClass head, CharClass tail) {
+        return scan(s, 0, head, tail) == 2;
+    }
+
+    static boolean matches(Document doc, CharClass chars) {
+        return scan(doc, chars, null) == 1;
+    }
+
+    static boolean matches(Document doc, CharClass head, CharClass tail) {
+        return scan(doc, head, tail) == 2;
+    }
+
+    // Runs the head+ tail+ matcher over the document a Segment at a time
+    private static int scan(Document doc, CharClass head, CharClass tail) {
+        Segment segment = new Segment();
+        segment.setPartialReturn(true);
+        int state = 0;
+        try {
+            for (int from = 0, count = doc.getLength(); count > 0 && state >= 0; ) {
+                doc.getText(from, count, segment);
+                state = scan(segment, state, head, tail);
+                from += segment.count;
+                count -= segment.count;
+            }
+        } catch (BadLocationException e) {
+            throw new IllegalStateException(e);  // only reads 0..getLength()
+        }
+        return state;
+    }
+
+    // Matcher state after reading s: 0 nothing read, 1 in the head run,
+    // 2 in the tail run, -1 no match
+    private static int scan(CharSequence s, int state, CharClass head, CharClass tail) {
+        for (int i = 0; i < s.length() && state >= 0; i++) {
+            char c = s.charAt(i);
+            if (state < 2 && head.contains(c)) state = 1;
+            else if (state >= 1 && tail != null && tail.contains(c)) state = 2;
+            else state = -1;
+        }
+        return state;
+    }
+}
@@ -6,31 +6,6 @@ import javax.swing.text.*;
 import java.awt.*;
 import java.awt.event.*;
 
-class NumberRangeFilter extends DocumentFilter {
-    private final int min, max;
-    public NumberRangeFilter(int min, int max) { this.min = min; this.max = max; }
-
-    @Override
-    public void insertString(FilterBypass fb,int offset,String string,AttributeSet attr)throws BadLocationException{
-        StringBuilder sb = new StringBuilder(fb.getDocument().getText(0, fb.getDocument().getLength()));
-        sb.insert(offset,string);
-        if(isValid(sb.toString())) super.insertString(fb,offset,string,attr);
-    }
-
-    @Override
-    public void replace(FilterBypass fb,int offset,int length,String text,AttributeSet attr)throws BadLocationException{
-        StringBuilder sb = new StringBuilder(fb.getDocument().getText(0, fb.getDocument().getLength()));
-        sb.replace(offset,offset+length,text);
-        if(isValid(sb.toString())) super.replace(fb,offset,length,text,attr);
-    }
-
-    private boolean isValid(String text){
-        if(text.isEmpty()) return true;
-        try { int v = Integer.parseInt(text); return v>=min && v<=max; } 
-        catch(Exception e){ return false; }
-    }
-}
-
 public class PrelimCalculator extends JFrame implements ActionListener {
 
     private JComboBox<String> enrolleeType, absenceChoice;
@@ -130,12 +105,12 @@ public class PrelimCalculator extends JFrame implements ActionListener {
         add(mainPanel, BorderLayout.CENTER);
 
         // Filters
-        ((AbstractDocument)startWeekField.getDocument()).setDocumentFilter(new NumberRangeFilter(1,5));
-        ((AbstractDocument)excusedField.getDocument()).setDocumentFilter(new NumberRangeFilter(0,5));
-        ((AbstractDocument)unexcusedField.getDocument()).setDocumentFilter(new NumberRangeFilter(0,5));
-        ((AbstractDocument)lab1Field.getDocument()).setDocumentFilter(new NumberRangeFilter(0,100));
-        ((AbstractDocument)lab2Field.getDocument()).setDocumentFilter(new NumberRangeFilter(0,100));
-        ((AbstractDocument)lab3Field.getDocument()).setDocumentFilter(new NumberRangeFilter(0,100));
+        ((AbstractDocument)startWeekField.getDocument()).setDocumentFilter(InputFilters.intRange(1,5));
+        ((AbstractDocument)excusedField.getDocument()).setDocumentFilter(InputFilters.intRange(0,5));
+        ((AbstractDocument)unexcusedField.getDocument()).setDocumentFilter(InputFilters.intRange(0,5));
+        ((AbstractDocument)lab1Field.getDocument()).setDocumentFilter(InputFilters.intRange(0,100));
+        ((AbstractDocument)lab2Field.getDocument()).setDocumentFilter(InputFilters.intRange(0,100));
+        ((AbstractDocument)lab3Field.getDocument()).setDocumentFilter(InputFilters.intRange(0,100));
 
         // Initial locking
         startWeekField.setEnabled(false);
@@ -185,10 +160,15 @@ public class PrelimCalculator extends JFrame implements ActionListener {
 
             boolean late = enrolleeType.getSelectedIndex()==1;
             int startWeek = late ? Integer.parseInt(startWeekField.getText()) : 1;
-            int totalWeeks = late ? 6 - startWeek : 5;
+
+            // The formulas live in PrelimGradeEngine, shared with batch grading
+            PrelimGradeEngine.Roster roster = new PrelimGradeEngine.Roster();
+            roster.add("", "", late, startWeek, excused, unexcused, lab1, lab2, lab3);
+            PrelimGradeEngine.Results result = PrelimGradeEngine.compute(roster);
+            int totalWeeks = result.totalWeeks[0];
 
             // Auto-fail if unexcused >= 4
-            if(unexcused >= 4){
+            if(result.autoFail[0]){
                 StyledDocument doc = resultPane.getStyledDocument();
                 doc.remove(0,doc.getLength());
                 add(doc,"===== AUTOMATIC FAILURE =====\n\n",Color.RED,true);
@@ -196,16 +176,13 @@ public class PrelimCalculator extends JFrame implements ActionListener {
                 return;
             }
 
-            // Attendance grade based purely on absences
-            double attendanceGrade = ((double)(totalWeeks - unexcused) / totalWeeks) * 100;
-            attendanceGrade = Math.max(0, attendanceGrade);
-
-            double labAvg = (lab1+lab2+lab3)/3.0;
-            double classStanding = attendanceGrade*0.4 + labAvg*0.6;
+            double attendanceGrade = result.attendance[0];
+            double labAvg = result.labAverage[0];
+            double classStanding = result.classStanding[0];
 
-            double requiredPassing = (75 - classStanding*0.7)/0.3;
-            double requiredExcellent = (100 - classStanding*0.7)/0.3;
-            double maxAchievable = classStanding*0.7 + 100*0.3;
+            double requiredPassing = result.requiredPassing[0];
+            double requiredExcellent = result.requiredExcellent[0];
+            double maxAchievable = result.maxAchievable[0];
 
             StyledDocument doc = resultPane.getStyledDocument();
             doc.remove(0,doc.getLength());
@@ -0,0 +1,348 @@
+// File: PrelimGradeEngine.java
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// The prelim grade formulas, kept apart from the Swing form so a whole roster
+// can be graded at once. Students are held column by column in primitive
+// arrays (Roster), every derived value goes into preallocated arrays
+// (Results), and compute() allocates nothing per student. Large rosters are
+// split into ranges that run in parallel on the common ForkJoinPool.
+//
+// Command line: java PrelimGradeEngine roster.csv [results.csv]
+// The CSV is shaped like MOCK_DATA.csv (StudentID,first_name,last_name,
+// LAB WORK 1,LAB WORK 2,LAB WORK 3,...). Columns are found by header name;
+// ENROLLMENT (Regular/Late), START WEEK, EXCUSED and UNEXCUSED are optional.
+// Without absence columns, an ATTENDANCE GRADE column is used as given.
+public final class PrelimGradeEngine {
+
+    static final int WEEKS = 5;                 // prelim period for a regular enrollee
+    static final int AUTO_FAIL_UNEXCUSED = 4;   // this many unexcused absences fails outright
+    static final double PASSING = 75, EXCELLENT = 100;
+    static final double ATTENDANCE_WEIGHT = 0.4, LAB_WEIGHT = 0.6;       // of the class standing
+    static final double STANDING_WEIGHT = 0.7, PRELIM_WEIGHT = 0.3;      // of the prelim grade
+
+    private static final int PARALLEL_ROWS = 1 << 14;  // smaller ranges run on the calling thread
+
+    private PrelimGradeEngine() {}
+
+    // Inputs, one entry per student in each array
+    static final class Roster {
+        String[] ids = new String[16], names = new String[16];
+        boolean[] late = new boolean[16];
+        int[] startWeek = new int[16];          // 1-5, read only for late enrollees
+        int[] excused = new int[16], unexcused = new int[16];
+        double[] lab1 = new double[16], lab2 = new double[16], lab3 = new double[16];
+        double[] attendanceGiven;               // null, or a grade per student (NaN: from absences)
+        int size;
+
+        void add(String id, String name, boolean isLate, int week, int excusedCount, int unexcusedCount,
+                 double l1, double l2, double l3) {
+            if (size == ids.length) grow(size * 2);
+            ids[size] = id;
+            names[size] = name;
+            late[size] = isLate;
+            startWeek[size] = week;
+            excused[size] = excusedCount;
+            unexcused[size] = unexcusedCount;
+            lab1[size] = l1;
+            lab2[size] = l2;
+            lab3[size] = l3;
+            if (attendanceGiven != null) attendanceGiven[size] = Double.NaN;
+            size++;
+        }
+
+        // Uses grade as the attendance grade of the student just added
+        void giveAttendance(double grade) {
+            if (attendanceGiven == null) {
+                attendanceGiven = new double[ids.length];
+                Arrays.fill(attendanceGiven, Double.NaN);
+            }
+            attendanceGiven[size - 1] = grade;
+        }
+
+        private void grow(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            late = Arrays.copyOf(late, capacity);
+            startWeek = Arrays.copyOf(startWeek, capacity);
+            excused = Arrays.copyOf(excused, capacity);
+            unexcused = Arrays.copyOf(unexcused, capacity);
+            lab1 = Arrays.copyOf(lab1, capacity);
+            lab2 = Arrays.copyOf(lab2, capacity);
+            lab3 = Arrays.copyOf(lab3, capacity);
+            if (attendanceGiven != null) {
+                int old = attendanceGiven.length;
+                attendanceGiven = Arrays.copyOf(attendanceGiven, capacity);
+                Arrays.fill(attendanceGiven, old, capacity, Double.NaN);
+            }
+        }
+    }
+
+    // Outputs. For an automatic failure only totalWeeks and labAverage are
+    // set; the grades that depend on attendance are NaN.
+    static final class Results {
+        final int[] totalWeeks;
+        final boolean[] autoFail;
+        final double[] attendance, labAverage, classStanding;
+        final double[] requiredPassing, requiredExcellent, maxAchievable;
+
+        Results(int size) {
+            totalWeeks = new int[size];
+            autoFail = new boolean[size];
+            attendance = new double[size];
+            labAverage = new double[size];
+            classStanding = new double[size];
+            requiredPassing = new double[size];
+            requiredExcellent = new double[size];
+            maxAchievable = new double[size];
+        }
+    }
+
+    // Every student of the roster, in parallel when there are many
+    static Results compute(Roster roster) {
+        Results out = new Results(roster.size);
+        if (roster.size <= PARALLEL_ROWS) compute(roster, out, 0, roster.size);
+        else ForkJoinPool.commonPool().invoke(new Range(roster, out, 0, roster.size));
+        return out;
+    }
+
+    // Students from..to-1, on this thread
+    static void compute(Roster in, Results out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int totalWeeks = in.late[i] ? 6 - in.startWeek[i] : WEEKS;
+            out.totalWeeks[i] = totalWeeks;
+            double labAvg = (in.lab1[i] + in.lab2[i] + in.lab3[i]) / 3.0;
+            out.labAverage[i] = labAvg;
+
+            if (in.unexcused[i] >= AUTO_FAIL_UNEXCUSED) {
+                out.autoFail[i] = true;
+                out.attendance[i] = out.classStanding[i] = Double.NaN;
+                out.requiredPassing[i] = out.requiredExcellent[i] = out.maxAchievable[i] = Double.NaN;
+                continue;
+            }
+            out.autoFail[i] = false;
+
+            // Attendance grade based purely on absences, unless the roster gives one
+            double attendanceGrade = in.attendanceGiven != null && !Double.isNaN(in.attendanceGiven[i])
+                ? in.attendanceGiven[i]
+                : Math.max(0, ((double) (totalWeeks - in.unexcused[i]) / totalWeeks) * 100);
+            double classStanding = attendanceGrade * ATTENDANCE_WEIGHT + labAvg * LAB_WEIGHT;
+
+            out.attendance[i] = attendanceGrade;
+            out.classStanding[i] = classStanding;
+            out.requiredPassing[i] = (PASSING - classStanding * STANDING_WEIGHT) / PRELIM_WEIGHT;
+            out.requiredExcellent[i] = (EXCELLENT - classStanding * STANDING_WEIGHT) / PRELIM_WEIGHT;
+            out.maxAchievable[i] = classStanding * STANDING_WEIGHT + 100 * PRELIM_WEIGHT;
+        }
+    }
+
+    // Splits a range in half until it is small enough to compute directly
+    private static final class Range extends RecursiveAction {
+        private final Roster in;
+        private final Results out;
+        private final int from, to;
+
+        Range(Roster in, Results out, int from, int to) {
+            this.in = in;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_ROWS) {
+                PrelimGradeEngine.compute(in, out, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Range(in, out, from, mid), new Range(in, out, mid, to));
+        }
+    }
+
+    // ----- Command line -----
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: java PrelimGradeEngine roster.csv [results.csv]");
+            System.exit(2);
+        }
+        long start = System.nanoTime();
+        Roster roster = new Roster();
+        int skipped = read(new File(args[0]), roster);
+        long read = System.nanoTime();
+        Results results = compute(roster);
+        long computed = System.nanoTime();
+
+        OutputStream target = args.length > 1 ? new FileOutputStream(args[1]) : System.out;
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(
+                 new OutputStreamWriter(target, StandardCharsets.UTF_8), 1 << 16))) {
+            write(roster, results, out);
+        }
+        long written = System.nanoTime();
+
+        int failed = 0, canPass = 0;
+        for (int i = 0; i < roster.size; i++) {
+            if (results.autoFail[i]) failed++;
+            else if (results.requiredPassing[i] <= 100) canPass++;
+        }
+        System.err.printf("%,d students (%,d rows skipped): %,d automatic failures, %,d can still pass%n",
+                          roster.size, skipped, failed, canPass);
+        System.err.printf("read %,d ms, compute %,d ms, write %,d ms%n",
+                          (read - start) / 1_000_000, (computed - read) / 1_000_000, (written - computed) / 1_000_000);
+    }
+
+    // Reads the roster; returns the number of rows skipped for a missing or out-of-range value
+    static int read(File file, Roster roster) throws IOException {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                 new FileInputStream(file), StandardCharsets.UTF_8), 1 << 16)) {
+            String line = in.readLine();
+            if (line == null) return 0;
+            String[] header = splitCsv(line);
+            int id = column(header, "STUDENTID", "ID");
+            int first = column(header, "FIRSTNAME"), last = column(header, "LASTNAME");
+            int name = column(header, "NAME");
+            int enrollment = column(header, "ENROLLMENT", "ENROLLMENTTYPE");
+            int week = column(header, "STARTWEEK");
+            int excused = column(header, "EXCUSED", "EXCUSEDABSENCES");
+            int unexcused = column(header, "UNEXCUSED", "UNEXCUSEDABSENCES");
+            int attendance = unexcused < 0 ? column(header, "ATTENDANCEGRADE", "ATTENDANCE") : -1;
+            int lab1 = column(header, "LABWORK1", "LAB1"), lab2 = column(header, "LABWORK2", "LAB2");
+            int lab3 = column(header, "LABWORK3", "LAB3");
+            if (lab1 < 0 || lab2 < 0 || lab3 < 0) {
+                throw new IOException(file + " needs LAB WORK 1, LAB WORK 2 and LAB WORK 3 columns");
+            }
+
+            int skipped = 0;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                String[] f = splitCsv(line);
+                try {
+                    boolean late = field(f, enrollment).toLowerCase().startsWith("late");
+                    int startWeek = late ? intIn(field(f, week), 1, 5) : 1;
+                    String fullName = name >= 0 ? field(f, name) : (field(f, first) + " " + field(f, last)).trim();
+                    roster.add(field(f, id), fullName, late, startWeek,
+                               optionalIntIn(field(f, excused), 0, WEEKS), optionalIntIn(field(f, unexcused), 0, WEEKS),
+                               scoreIn(field(f, lab1)), scoreIn(field(f, lab2)), scoreIn(field(f, lab3)));
+                    if (attendance >= 0) roster.giveAttendance(scoreIn(field(f, attendance)));
+                } catch (IllegalArgumentException e) {  // includes NumberFormatException
+                    skipped++;
+                }
+            }
+            return skipped;
+        }
+    }
+
+    // One line per student; empty cells where an automatic failure leaves no value
+    static void write(Roster roster, Results r, PrintWriter out) {
+        out.println("StudentID,Name,Enrollment,Start Week,Excused,Unexcused,Total Weeks,Attendance Grade,"
+                    + "Lab Average,Class Standing,Required Passing,Required Excellent,Max Achievable,Status");
+        StringBuilder sb = new StringBuilder(160);
+        for (int i = 0; i < roster.size; i++) {
+            sb.setLength(0);
+            appendCsv(sb, roster.ids[i]).append(',');
+            appendCsv(sb, roster.names[i]).append(',')
+              .append(roster.late[i] ? "Late" : "Regular").append(',')
+              .append(roster.late[i] ? roster.startWeek[i] : 1).append(',')
+              .append(roster.excused[i]).append(',').append(roster.unexcused[i]).append(',')
+              .append(r.totalWeeks[i]);
+            appendFixed2(sb.append(','), r.attendance[i]);
+            appendFixed2(sb.append(','), r.labAverage[i]);
+            appendFixed2(sb.append(','), r.classStanding[i]);
+            appendFixed2(sb.append(','), r.requiredPassing[i]);
+            appendFixed2(sb.append(','), r.requiredExcellent[i]);
+            appendFixed2(sb.append(','), r.maxAchievable[i]);
+            sb.append(',').append(status(r, i));
+            out.println(sb);
+        }
+    }
+
+    // Short verdict for a student, in the calculator's terms
+    static String status(Results r, int i) {
+        if (r.autoFail[i]) return "AUTOMATIC FAILURE";
+        double required = r.requiredPassing[i];
+        if (required > 100) return "Cannot pass";
+        if (required <= 0) return "Passing secured";
+        return "Needs prelim exam";
+    }
+
+    // ----- Internals -----
+    // v rounded to two decimals, without the cost of String.format; NaN as nothing
+    private static void appendFixed2(StringBuilder sb, double v) {
+        if (Double.isNaN(v)) return;
+        long cents = Math.round(Math.abs(v) * 100);
+        if (v < 0 && cents != 0) sb.append('-');
+        sb.append(cents / 100).append('.');
+        long fraction = cents % 100;
+        if (fraction < 10) sb.append('0');
+        sb.append(fraction);
+    }
+
+    // Quotes a field that holds a comma or a quote
+    private static StringBuilder appendCsv(StringBuilder sb, String field) {
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0) return sb.append(field);
+        return sb.append('"').append(field.replace("\"", "\"\"")).append('"');
+    }
+
+    // Index of the first header matching one of the names (letters and digits only, any case), -1 if none
+    private static int column(String[] header, String... names) {
+        for (int i = 0; i < header.length; i++) {
+            String key = header[i].toUpperCase().replaceAll("[^A-Z0-9]", "");
+            for (String n : names) {
+                if (key.equals(n)) return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String field(String[] fields, int index) {
+        return index >= 0 && index < fields.length ? fields[index].trim() : "";
+    }
+
+    private static int intIn(String text, int min, int max) {
+        int v = Integer.parseInt(text);
+        if (v < min || v > max) throw new IllegalArgumentException(v + " is not in " + min + "-" + max);
+        return v;
+    }
+
+    private static int optionalIntIn(String text, int min, int max) {
+        return text.isEmpty() ? 0 : intIn(text, min, max);
+    }
+
+    private static double scoreIn(String text) {
+        double v = Double.parseDouble(text);
+        if (!(v >= 0 && v <= 100)) throw new IllegalArgumentException(v + " is not a score from 0 to 100");
+        return v;
+    }
+
+    // Fields of one CSV line; double quotes may wrap a field containing commas
+    private static String[] splitCsv(String line) {
+        if (line.indexOf('"') < 0) return line.split(",", -1);
+        List<String> fields = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    sb.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                fields.add(sb.toString());
+                sb.setLength(0);
+            } else {
+                sb.append(c);
+            }
+        }
+        fields.add(sb.toString());
+        return fields.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,223 @@
+// File: PrelimLookupTable.java
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+// Every answer PrelimCalculator can give, worked out ahead of time. With
+// whole-number lab scores the class standing depends only on the total weeks
+// (1-5), the unexcused absences (0-3; 4 or more fails outright) and the sum
+// of the three labs (0-300), so one table of 5 x 4 x 301 doubles (47 KB)
+// covers every input. The table is filled by PrelimGradeEngine itself, and
+// the prelim score needed for any final grade is one step from the class
+// standing, so each query is O(1) and matches the engine exactly.
+//
+// Command line:
+//   java PrelimLookupTable --sweep [totalWeeks] [step]   required scores over the lab grid
+//   java PrelimLookupTable --table out.csv                every combination as CSV
+//   java PrelimLookupTable --serve                        answers queries from standard input
+//   java PrelimLookupTable --bench [queries]              table lookups vs the engine
+final class PrelimLookupTable {
+
+    static final int MAX_LAB = 100;
+    private static final int ABSENCE_CASES = PrelimGradeEngine.AUTO_FAIL_UNEXCUSED;  // 0..3 unexcused
+    private static final int LAB_SUMS = 3 * MAX_LAB + 1;
+    private static final double[] CLASS_STANDING = build();
+
+    private PrelimLookupTable() {}
+
+    // Table slot for a student, -1 for an automatic failure. Throws
+    // IllegalArgumentException for inputs the calculator would not accept.
+    static int slot(boolean late, int startWeek, int unexcused, int lab1, int lab2, int lab3) {
+        if (late && (startWeek < 1 || startWeek > PrelimGradeEngine.WEEKS)) {
+            throw new IllegalArgumentException("Start week " + startWeek + " is not in 1-" + PrelimGradeEngine.WEEKS);
+        }
+        if (unexcused < 0 || unexcused > PrelimGradeEngine.WEEKS) {
+            throw new IllegalArgumentException("Unexcused absences " + unexcused + " is not in 0-" + PrelimGradeEngine.WEEKS);
+        }
+        if ((lab1 | lab2 | lab3) < 0 || lab1 > MAX_LAB || lab2 > MAX_LAB || lab3 > MAX_LAB) {
+            throw new IllegalArgumentException("Lab scores must be 0-" + MAX_LAB);
+        }
+        if (unexcused >= PrelimGradeEngine.AUTO_FAIL_UNEXCUSED) return -1;
+        int totalWeeks = late ? 6 - startWeek : PrelimGradeEngine.WEEKS;
+        return slot(totalWeeks, unexcused, lab1 + lab2 + lab3);
+    }
+
+    static double classStanding(int slot) { return CLASS_STANDING[slot]; }
+
+    // Prelim exam score needed to finish with target: the closed-form
+    // inverse of grade = standing * 0.7 + prelim * 0.3
+    static double required(int slot, double target) {
+        return (target - CLASS_STANDING[slot] * PrelimGradeEngine.STANDING_WEIGHT) / PrelimGradeEngine.PRELIM_WEIGHT;
+    }
+
+    static double requiredPassing(int slot) { return required(slot, PrelimGradeEngine.PASSING); }
+
+    static double requiredExcellent(int slot) { return required(slot, PrelimGradeEngine.EXCELLENT); }
+
+    static double maxAchievable(int slot) {
+        return CLASS_STANDING[slot] * PrelimGradeEngine.STANDING_WEIGHT + 100 * PrelimGradeEngine.PRELIM_WEIGHT;
+    }
+
+    // ----- Internals -----
+    private static int slot(int totalWeeks, int unexcused, int labSum) {
+        return ((totalWeeks - 1) * ABSENCE_CASES + unexcused) * LAB_SUMS + labSum;
+    }
+
+    // One roster with a student per slot, graded by the engine. A late start
+    // in week s leaves 6 - s weeks; week 1 is the same as a regular enrollee.
+    private static double[] build() {
+        PrelimGradeEngine.Roster roster = new PrelimGradeEngine.Roster();
+        for (int weeks = 1; weeks <= PrelimGradeEngine.WEEKS; weeks++) {
+            for (int unexcused = 0; unexcused < ABSENCE_CASES; unexcused++) {
+                for (int sum = 0; sum < LAB_SUMS; sum++) {
+                    int lab1 = Math.min(sum, MAX_LAB), lab2 = Math.min(sum - lab1, MAX_LAB);
+                    roster.add("", "", true, 6 - weeks, 0, unexcused, lab1, lab2, sum - lab1 - lab2);
+                }
+            }
+        }
+        return PrelimGradeEngine.compute(roster).classStanding;
+    }
+
+    // ----- Command line -----
+    public static void main(String[] args) throws IOException {
+        String mode = args.length > 0 ? args[0] : "";
+        switch (mode) {
+            case "--sweep":
+                sweep(args.length > 1 ? Integer.parseInt(args[1]) : PrelimGradeEngine.WEEKS,
+                      args.length > 2 ? Integer.parseInt(args[2]) : 5);
+                break;
+            case "--table":
+                if (args.length < 2) usage();
+                try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(args[1])))) {
+                    writeTable(out);
+                }
+                break;
+            case "--serve":
+                serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+                      new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+                break;
+            case "--bench":
+                bench(args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000);
+                break;
+            default:
+                usage();
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: java PrelimLookupTable --sweep [totalWeeks] [step] | --table out.csv | --serve | --bench [queries]");
+        System.exit(2);
+    }
+
+    // Required prelim scores by lab average (rows) and unexcused absences
+    // (columns). Only the lab total matters, so each row stands for every
+    // combination of the three labs with that average.
+    static void sweep(int totalWeeks, int step) {
+        if (totalWeeks < 1 || totalWeeks > PrelimGradeEngine.WEEKS || step < 1) {
+            throw new IllegalArgumentException("Total weeks must be 1-" + PrelimGradeEngine.WEEKS + " and step at least 1");
+        }
+        System.out.printf("Required prelim exam score, %d week(s) of classes%n", totalWeeks);
+        System.out.println("Above 100: out of reach.  0 or less: already secured.  4+ unexcused: automatic failure.");
+        System.out.println();
+        StringBuilder header = new StringBuilder("Lab avg ");
+        for (String target : new String[]{"Passing (75)", "Excellent (100)"}) {
+            header.append(String.format("| %-33s", target));
+        }
+        System.out.println(header);
+        StringBuilder absences = new StringBuilder("        ");
+        for (int t = 0; t < 2; t++) {
+            absences.append("|");
+            for (int u = 0; u < ABSENCE_CASES; u++) absences.append(String.format("  %d unexc", u));
+            absences.append(' ');
+        }
+        System.out.println(absences);
+        for (int average = 0; average <= MAX_LAB; average += step) {
+            StringBuilder line = new StringBuilder(String.format("%7d ", average));
+            for (double target : new double[]{PrelimGradeEngine.PASSING, PrelimGradeEngine.EXCELLENT}) {
+                line.append("|");
+                for (int u = 0; u < ABSENCE_CASES; u++) {
+                    line.append(String.format(" %8.2f", required(slot(totalWeeks, u, 3 * average), target)));
+                }
+                line.append(' ');
+            }
+            System.out.println(line);
+        }
+    }
+
+    // Every slot, for loading into another system
+    static void writeTable(PrintWriter out) {
+        out.println("Total Weeks,Unexcused,Lab Sum,Lab Average,Class Standing,Required Passing,Required Excellent,Max Achievable");
+        for (int weeks = 1; weeks <= PrelimGradeEngine.WEEKS; weeks++) {
+            for (int unexcused = 0; unexcused < ABSENCE_CASES; unexcused++) {
+                for (int sum = 0; sum < LAB_SUMS; sum++) {
+                    int slot = slot(weeks, unexcused, sum);
+                    out.printf("%d,%d,%d,%.4f,%.4f,%.4f,%.4f,%.4f%n", weeks, unexcused, sum, sum / 3.0,
+                               classStanding(slot), requiredPassing(slot), requiredExcellent(slot), maxAchievable(slot));
+                }
+            }
+        }
+    }
+
+    // One query per line: late(0/1) startWeek unexcused lab1 lab2 lab3.
+    // Answers "requiredPassing requiredExcellent maxAchievable", or FAIL / ERROR.
+    // Output is flushed whenever no more input is waiting, so it works both
+    // interactively and on a piped batch.
+    static void serve(BufferedReader in, BufferedWriter out) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (String line; (line = in.readLine()) != null; ) {
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            sb.setLength(0);
+            try {
+                String[] f = line.split("\\s+");
+                if (f.length != 6) throw new IllegalArgumentException("Expected 6 numbers");
+                int slot = slot(!f[0].equals("0"), Integer.parseInt(f[1]), Integer.parseInt(f[2]),
+                                Integer.parseInt(f[3]), Integer.parseInt(f[4]), Integer.parseInt(f[5]));
+                if (slot < 0) sb.append("FAIL");
+                else sb.append(round2(requiredPassing(slot))).append(' ')
+                       .append(round2(requiredExcellent(slot))).append(' ')
+                       .append(round2(maxAchievable(slot)));
+            } catch (IllegalArgumentException e) {
+                sb.append("ERROR ").append(e.getMessage());
+            }
+            out.append(sb).append('\n');
+            if (!in.ready()) out.flush();
+        }
+        out.flush();
+    }
+
+    // Random queries answered from the table and by grading each student with the engine
+    static void bench(int queries) {
+        Random random = new Random(1);
+        int[] packed = new int[queries];  // late | startWeek | unexcused | labs, 7 bits each
+        for (int i = 0; i < queries; i++) {
+            packed[i] = random.nextInt(2) | (1 + random.nextInt(5)) << 1 | random.nextInt(4) << 4
+                      | random.nextInt(101) << 7 | random.nextInt(101) << 14 | random.nextInt(101) << 21;
+        }
+        for (int round = 0; round < 3; round++) {
+            double checksum = 0;
+            long start = System.nanoTime();
+            for (int q : packed) {
+                int slot = slot((q & 1) != 0, q >>> 1 & 7, q >>> 4 & 7, q >>> 7 & 127, q >>> 14 & 127, q >>> 21 & 127);
+                checksum += requiredPassing(slot);
+            }
+            long table = System.nanoTime() - start;
+
+            double engineSum = 0;
+            start = System.nanoTime();
+            for (int q : packed) {
+                PrelimGradeEngine.Roster one = new PrelimGradeEngine.Roster();
+                one.add("", "", (q & 1) != 0, q >>> 1 & 7, 0, q >>> 4 & 7, q >>> 7 & 127, q >>> 14 & 127, q >>> 21 & 127);
+                engineSum += PrelimGradeEngine.compute(one).requiredPassing[0];
+            }
+            long engine = System.nanoTime() - start;
+            System.out.printf("%,d queries: table %,.0f/s, engine per student %,.0f/s, same answers: %b%n",
+                              queries, queries / (table / 1e9), queries / (engine / 1e9), checksum == engineSum);
+        }
+    }
+
+    private static String round2(double v) {
+        return String.format("%.2f", v);
+    }
+}